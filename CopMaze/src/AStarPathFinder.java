@@ -0,0 +1,195 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The AStarPathFinder class finds shortest paths with the A* algorithm (model class). Cells are expanded
+ * in the order of their distance from the start plus a heuristic estimate of their distance to the target,
+ * so a search between close cells only expands the cells around them instead of the whole reachable area.
+ * The open set is a binary heap over a primitive array, and each thread searches with its own scratch.
+ */
+public class AStarPathFinder implements PathFinder {
+	/**
+	 * The maze to search.
+	 */
+	private Maze maze;
+
+	/**
+	 * The estimate of the distance to the target.
+	 */
+	private Heuristic heuristic;
+
+	/**
+	 * The search state of each thread running searches in the maze.
+	 */
+	private ThreadLocal<AStarScratch> searchScratch;
+
+	/**
+	 * The number of cells expanded by all the searches.
+	 */
+	private LongAdder nbExpanded = new LongAdder();
+
+	/**
+	 * Creates an A* path finder for a maze using the Manhattan distance.
+	 *
+	 * @param maze The maze to search.
+	 */
+	public AStarPathFinder(Maze maze) {
+		this(maze, Heuristic.MANHATTAN);
+	}
+
+	/**
+	 * Creates an A* path finder for a maze.
+	 *
+	 * @param maze      The maze to search.
+	 * @param heuristic The estimate of the distance to the target, which must never exceed the true distance.
+	 */
+	public AStarPathFinder(Maze maze, Heuristic heuristic) {
+		this.maze = maze;
+		this.heuristic = heuristic;
+		searchScratch = ThreadLocal.withInitial(() -> new AStarScratch(maze.getWidth() * maze.getHeight()));
+	}
+
+	@Override
+	public int[] findPath(int from, int to) {
+		AStarScratch scratch = search(from, to);
+		if (!scratch.visited.isVisited(to)) {
+			return new int[0];
+		}
+		return scratch.visited.getPath(maze, from, to);
+	}
+
+	@Override
+	public int nextStep(int from, int to) {
+		if (from == to) {
+			return from;
+		}
+		// The search runs backwards, so the side the start cell was reached from gives the next step
+		AStarScratch scratch = search(to, from);
+		if (!scratch.visited.isVisited(from)) {
+			return from;
+		}
+		return maze.getNeighbor(from, scratch.visited.getCameFrom(from));
+	}
+
+	@Override
+	public long getNbExpanded() {
+		return nbExpanded.sum();
+	}
+
+	/**
+	 * Runs an A* search from a start cell until a goal cell is expanded.
+	 *
+	 * @param startCell The id of the cell the search starts from.
+	 * @param goalCell  The id of the cell to reach.
+	 * @return The scratch of the thread, holding the cells visited and the side each one was reached from.
+	 */
+	private AStarScratch search(int startCell, int goalCell) {
+		AStarScratch scratch = searchScratch.get();
+		SearchScratch visited = scratch.visited;
+		int[] distances = scratch.distances;
+		CellHeap open = scratch.open;
+		visited.reset();
+		open.clear();
+
+		CellGrid cells = maze.getCells();
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+		int goalX = goalCell % width;
+		int goalY = goalCell / width;
+		visited.visit(startCell, 0);
+		distances[startCell] = 0;
+		open.add(estimate(startCell, goalX, goalY, width), startCell);
+		int expanded = 0;
+		while (!open.isEmpty()) {
+			long entry = open.poll();
+			int cell = CellHeap.cellOf(entry);
+			int distance = distances[cell];
+			// Entries left behind when a shorter path to their cell was found are skipped
+			if (CellHeap.priorityOf(entry) != distance + estimate(cell, goalX, goalY, width)) {
+				continue;
+			}
+			expanded++;
+			if (cell == goalCell) {
+				break;
+			}
+			int bits = cells.get(cell);
+			int x = cell % width;
+			int y = cell / width;
+			if (x > 0 && (bits & Maze.LEFT) != 0) {
+				relax(scratch, cell - 1, Maze.RIGHT, distance + 1, goalX, goalY, width);
+			}
+			if (x < width - 1 && (bits & Maze.RIGHT) != 0) {
+				relax(scratch, cell + 1, Maze.LEFT, distance + 1, goalX, goalY, width);
+			}
+			if (y > 0 && (bits & Maze.TOP) != 0) {
+				relax(scratch, cell - width, Maze.BOTTOM, distance + 1, goalX, goalY, width);
+			}
+			if (y < height - 1 && (bits & Maze.BOTTOM) != 0) {
+				relax(scratch, cell + width, Maze.TOP, distance + 1, goalX, goalY, width);
+			}
+		}
+		nbExpanded.add(expanded);
+		return scratch;
+	}
+
+	/**
+	 * Records a path to a cell if it is the first or a shorter one, and adds the cell to the open set.
+	 *
+	 * @param scratch  The scratch of the search.
+	 * @param cell     The id of the cell.
+	 * @param from     The side the cell is reached from.
+	 * @param distance The length of the path to the cell.
+	 * @param goalX    The x-coordinate of the goal cell.
+	 * @param goalY    The y-coordinate of the goal cell.
+	 * @param width    The width of the maze.
+	 */
+	private void relax(AStarScratch scratch, int cell, int from, int distance, int goalX, int goalY, int width) {
+		if (!scratch.visited.isVisited(cell) || distance < scratch.distances[cell]) {
+			scratch.visited.visit(cell, from);
+			scratch.distances[cell] = distance;
+			scratch.open.add(distance + estimate(cell, goalX, goalY, width), cell);
+		}
+	}
+
+	/**
+	 * Estimates the distance from a cell to the goal cell.
+	 *
+	 * @param cell  The id of the cell.
+	 * @param goalX The x-coordinate of the goal cell.
+	 * @param goalY The y-coordinate of the goal cell.
+	 * @param width The width of the maze.
+	 * @return The estimate of the heuristic.
+	 */
+	private int estimate(int cell, int goalX, int goalY, int width) {
+		return heuristic.estimate(Math.abs(cell % width - goalX), Math.abs(cell / width - goalY));
+	}
+}
+
+/**
+ * The search state of A* for one thread: the cells visited, their distance from the start, and the open set.
+ */
+class AStarScratch {
+	/**
+	 * The cells visited by the current search and the side each one was reached from.
+	 */
+	SearchScratch visited;
+
+	/**
+	 * The length of the shortest path found so far to each visited cell.
+	 */
+	int[] distances;
+
+	/**
+	 * The cells waiting to be expanded.
+	 */
+	CellHeap open = new CellHeap();
+
+	/**
+	 * Creates the scratch for a maze.
+	 *
+	 * @param nbCells The number of cells of the maze.
+	 */
+	AStarScratch(int nbCells) {
+		visited = new SearchScratch(nbCells);
+		distances = new int[nbCells];
+	}
+}
@@ -0,0 +1,84 @@
+import java.util.SplittableRandom;
+
+/**
+ * This class generates mazes with the recursive backtracker algorithm, a randomized depth-first
+ * search (model class). The recursion is replaced by a loop: each cell remembers the direction
+ * back to the cell it was carved from, so backtracking needs neither a call stack nor an explicit stack.
+ */
+public class BacktrackerGenerator implements MazeGenerator {
+	/**
+	 * Marker of the cell where the search started, which has no cell to go back to.
+	 */
+	private static final byte ROOT = 16;
+
+	/**
+	 * Carves a perfect maze into the given grid using the recursive backtracker algorithm.
+	 *
+	 * @param maze The cells of the maze.
+	 * @param random The source of randomness of the generation.
+	 */
+	@Override
+	public void generate(CellGrid maze, SplittableRandom random) {
+		int n = maze.getWidth();
+		int m = maze.getHeight();
+		// Cell ids are x + y * n, 0 means not visited yet
+		byte[] backDirections = new byte[n * m];
+		int[] candidates = new int[4];
+
+		int x = random.nextInt(n);
+		int y = random.nextInt(m);
+		int cell = x + y * n;
+		backDirections[cell] = ROOT;
+		while (true) {
+			// Look for the unvisited neighbors
+			int nbCandidates = 0;
+			if (x > 0 && backDirections[cell - 1] == 0) {
+				candidates[nbCandidates++] = Maze.LEFT;
+			}
+			if (x < n - 1 && backDirections[cell + 1] == 0) {
+				candidates[nbCandidates++] = Maze.RIGHT;
+			}
+			if (y > 0 && backDirections[cell - n] == 0) {
+				candidates[nbCandidates++] = Maze.TOP;
+			}
+			if (y < m - 1 && backDirections[cell + n] == 0) {
+				candidates[nbCandidates++] = Maze.BOTTOM;
+			}
+
+			int direction;
+			if (nbCandidates > 0) { // Carve towards a random unvisited neighbor
+				direction = candidates[random.nextInt(nbCandidates)];
+				maze.openPassage(x, y, direction);
+			} else { // Dead end, go back
+				direction = backDirections[cell];
+				if (direction == ROOT) {
+					break;
+				}
+			}
+
+			if (direction == Maze.LEFT) {
+				x--;
+			} else if (direction == Maze.RIGHT) {
+				x++;
+			} else if (direction == Maze.TOP) {
+				y--;
+			} else { // Bottom
+				y++;
+			}
+			cell = x + y * n;
+			if (nbCandidates > 0) {
+				backDirections[cell] = (byte) opposite(direction);
+			}
+		}
+	}
+
+	/**
+	 * Gets the opposite of a direction.
+	 *
+	 * @param direction The direction: LEFT, BOTTOM, RIGHT, or TOP.
+	 * @return RIGHT for LEFT, TOP for BOTTOM, LEFT for RIGHT, and BOTTOM for TOP.
+	 */
+	private static int opposite(int direction) {
+		return direction <= Maze.BOTTOM ? direction << 2 : direction >> 2;
+	}
+}
@@ -0,0 +1,147 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The BfsBenchmark class compares the time taken to compute the distances from the center of a square maze to
+ * all its cells, cell by cell with a queue and bit-parallel over the wall bitmaps (benchmark class). Each size
+ * is measured on a perfect maze and then with a growing share of its inner walls removed, up to an open grid,
+ * and both searches are checked to give the same distances. The bit-parallel search is also timed when it only
+ * counts the cells reached, without writing their distances. The sizes are given as arguments, 1024 to 8192
+ * by default; the largest maze needs a heap of about 2 GB.
+ */
+public class BfsBenchmark {
+	/**
+	 * The shares of the inner walls removed, in increasing order.
+	 */
+	private static final double[] EASINESS = {0.0, 0.1, 0.5, 1.0};
+
+	/**
+	 * The number of times each search is run, the best time being kept.
+	 */
+	private static final int NB_RUNS = 3;
+
+	/**
+	 * The seed of the mazes.
+	 */
+	private static final long SEED = 42;
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args The sizes of the side of the mazes.
+	 */
+	public static void main(String[] args) {
+		int[] sizes = {1024, 2048, 4096, 8192};
+		if (args.length > 0) {
+			sizes = Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+		}
+		System.out.println("size    easiness  queue ms  bit-parallel ms  speedup  count only ms  speedup");
+		for (int size : sizes) {
+			SplittableRandom random = new SplittableRandom(SEED);
+			CellGrid cells = new HeapCellGrid(size, size);
+			new ParallelTiledGenerator().generate(cells, random.split());
+			int source = cells.index(size / 2, size / 2);
+			int[] expected = new int[size * size];
+			int[] actual = new int[size * size];
+			double removed = 0;
+			for (double easiness : EASINESS) {
+				removeWalls(cells, (easiness - removed) / (1 - removed), random);
+				removed = easiness;
+
+				long queueTime = Long.MAX_VALUE;
+				int nbReached = 0;
+				for (int run = 0; run < NB_RUNS; run++) {
+					long start = System.nanoTime();
+					nbReached = queueDistances(cells, source, expected);
+					queueTime = Math.min(queueTime, System.nanoTime() - start);
+				}
+				BitParallelBfs bfs = new BitParallelBfs(new WallBitmaps(cells));
+				long bitTime = Long.MAX_VALUE;
+				long countTime = Long.MAX_VALUE;
+				for (int run = 0; run < NB_RUNS; run++) {
+					long start = System.nanoTime();
+					bfs.computeDistances(source, actual);
+					bitTime = Math.min(bitTime, System.nanoTime() - start);
+					start = System.nanoTime();
+					if (bfs.computeDistances(source, null) != nbReached) {
+						throw new IllegalStateException("The searches disagree on the " + size + " maze");
+					}
+					countTime = Math.min(countTime, System.nanoTime() - start);
+				}
+				if (!Arrays.equals(expected, actual)) {
+					throw new IllegalStateException("The searches disagree on the " + size + " maze");
+				}
+				System.out.printf("%-7d %-9.1f %-9.1f %-16.1f %-8.2f %-14.1f %.2f%n", size, easiness,
+						queueTime / 1e6, bitTime / 1e6, (double) queueTime / bitTime, countTime / 1e6,
+						(double) queueTime / countTime);
+			}
+		}
+	}
+
+	/**
+	 * Computes the distances from a cell to all the cells with a breadth-first search cell by cell.
+	 *
+	 * @param cells     The cells of the maze.
+	 * @param source    The id of the cell to start from.
+	 * @param distances The array receiving the distance of each cell, -1 for the cells that cannot be reached.
+	 * @return The number of cells reached, the source included.
+	 */
+	private static int queueDistances(CellGrid cells, int source, int[] distances) {
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+		Arrays.fill(distances, -1);
+		CellQueue queue = new CellQueue();
+		distances[source] = 0;
+		queue.add(source);
+		int nbReached = 0;
+		while (!queue.isEmpty()) {
+			int cell = queue.poll();
+			nbReached++;
+			int bits = cells.get(cell);
+			int x = cell % width;
+			int y = cell / width;
+			int distance = distances[cell] + 1;
+			if (x > 0 && (bits & Maze.LEFT) != 0 && distances[cell - 1] < 0) {
+				distances[cell - 1] = distance;
+				queue.add(cell - 1);
+			}
+			if (x < width - 1 && (bits & Maze.RIGHT) != 0 && distances[cell + 1] < 0) {
+				distances[cell + 1] = distance;
+				queue.add(cell + 1);
+			}
+			if (y > 0 && (bits & Maze.TOP) != 0 && distances[cell - width] < 0) {
+				distances[cell - width] = distance;
+				queue.add(cell - width);
+			}
+			if (y < height - 1 && (bits & Maze.BOTTOM) != 0 && distances[cell + width] < 0) {
+				distances[cell + width] = distance;
+				queue.add(cell + width);
+			}
+		}
+		return nbReached;
+	}
+
+	/**
+	 * Removes each remaining inner wall of a maze with some probability.
+	 *
+	 * @param cells       The cells of the maze.
+	 * @param probability The probability of removing a wall.
+	 * @param random      The source of randomness.
+	 */
+	private static void removeWalls(CellGrid cells, double probability, SplittableRandom random) {
+		if (probability <= 0) {
+			return;
+		}
+		for (int y = 0; y < cells.getHeight(); y++) {
+			for (int x = 0; x < cells.getWidth(); x++) {
+				int bits = cells.get(x, y);
+				if (x < cells.getWidth() - 1 && (bits & Maze.RIGHT) == 0 && random.nextDouble() < probability) {
+					cells.openPassage(x, y, Maze.RIGHT);
+				}
+				if (y < cells.getHeight() - 1 && (bits & Maze.BOTTOM) == 0 && random.nextDouble() < probability) {
+					cells.openPassage(x, y, Maze.BOTTOM);
+				}
+			}
+		}
+	}
+}
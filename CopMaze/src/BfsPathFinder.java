@@ -0,0 +1,110 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The BfsPathFinder class finds shortest paths with a breadth-first search over cell ids (model class).
+ * The search stops as soon as the target is reached, but it expands cells in every direction until then.
+ * Each thread searches with its own scratch, so the maze stays read-only.
+ */
+public class BfsPathFinder implements PathFinder {
+	/**
+	 * The maze to search.
+	 */
+	private Maze maze;
+
+	/**
+	 * The search state of each thread running searches in the maze.
+	 */
+	private ThreadLocal<SearchScratch> searchScratch;
+
+	/**
+	 * The number of cells expanded by all the searches.
+	 */
+	private LongAdder nbExpanded = new LongAdder();
+
+	/**
+	 * Creates a breadth-first path finder for a maze.
+	 *
+	 * @param maze The maze to search.
+	 */
+	public BfsPathFinder(Maze maze) {
+		this.maze = maze;
+		searchScratch = ThreadLocal.withInitial(() -> new SearchScratch(maze.getWidth() * maze.getHeight()));
+	}
+
+	@Override
+	public int[] findPath(int from, int to) {
+		SearchScratch visited = search(from, to);
+		if (!visited.isVisited(to)) {
+			return new int[0];
+		}
+		return visited.getPath(maze, from, to);
+	}
+
+	@Override
+	public int nextStep(int from, int to) {
+		if (from == to) {
+			return from;
+		}
+		// The search runs backwards, so the side the start cell was reached from gives the next step
+		SearchScratch visited = search(to, from);
+		if (!visited.isVisited(from)) {
+			return from;
+		}
+		return maze.getNeighbor(from, visited.getCameFrom(from));
+	}
+
+	@Override
+	public long getNbExpanded() {
+		return nbExpanded.sum();
+	}
+
+	/**
+	 * Runs a breadth-first search from a start cell until an end cell is reached.
+	 *
+	 * @param startCell The id of the cell the search starts from.
+	 * @param endCell   The id of the cell at which the search stops.
+	 * @return The scratch of the thread, holding the cells visited and the side each one was reached from.
+	 */
+	private SearchScratch search(int startCell, int endCell) {
+		SearchScratch visited = searchScratch.get();
+		visited.reset();
+		visited.visit(startCell, 0);
+
+		// The search stops as soon as the end cell is taken out of the queue
+		CellGrid cells = maze.getCells();
+		CellQueue queue = visited.getQueue();
+		queue.add(startCell);
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+		int expanded = 0;
+		while (!queue.isEmpty()) {
+			int cell = queue.poll();
+			expanded++;
+			if (cell == endCell) {
+				break;
+			}
+			// Add neighbors to the queue
+			int bits = cells.get(cell);
+			int x = cell % width;
+			int y = cell / width;
+			if (x > 0 && (bits & Maze.LEFT) != 0 && !visited.isVisited(cell - 1)) {
+				queue.add(cell - 1);
+				visited.visit(cell - 1, Maze.RIGHT);
+			}
+			if (x < width - 1 && (bits & Maze.RIGHT) != 0 && !visited.isVisited(cell + 1)) {
+				queue.add(cell + 1);
+				visited.visit(cell + 1, Maze.LEFT);
+			}
+			if (y > 0 && (bits & Maze.TOP) != 0 && !visited.isVisited(cell - width)) {
+				queue.add(cell - width);
+				visited.visit(cell - width, Maze.BOTTOM);
+			}
+			if (y < height - 1 && (bits & Maze.BOTTOM) != 0 && !visited.isVisited(cell + width)) {
+				queue.add(cell + width);
+				visited.visit(cell + width, Maze.TOP);
+			}
+		}
+		nbExpanded.add(expanded);
+		return visited;
+	}
+}
@@ -0,0 +1,159 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The BidirectionalBfsPathFinder class finds shortest paths with two breadth-first searches, one from each end,
+ * that meet in the middle (model class). The searches take turns expanding a whole level, the one with the
+ * smaller frontier going first, and stop as soon as a cell is reached by both. A single search expands every
+ * cell closer to the start than the target; here each search only goes about half as far, which on open mazes
+ * where the frontier grows with the distance expands far fewer cells.
+ */
+public class BidirectionalBfsPathFinder implements PathFinder {
+	/**
+	 * The maze to search.
+	 */
+	private Maze maze;
+
+	/**
+	 * The scratch of the search from the start and of the search from the target, for each thread.
+	 */
+	private ThreadLocal<SearchScratch[]> searchScratch;
+
+	/**
+	 * The number of cells expanded by all the searches.
+	 */
+	private LongAdder nbExpanded = new LongAdder();
+
+	/**
+	 * Creates a bidirectional breadth-first path finder for a maze.
+	 *
+	 * @param maze The maze to search.
+	 */
+	public BidirectionalBfsPathFinder(Maze maze) {
+		this.maze = maze;
+		searchScratch = ThreadLocal.withInitial(() -> new SearchScratch[] {
+				new SearchScratch(maze.getWidth() * maze.getHeight()),
+				new SearchScratch(maze.getWidth() * maze.getHeight()) });
+	}
+
+	@Override
+	public int[] findPath(int from, int to) {
+		if (from == to) {
+			return new int[0];
+		}
+		SearchScratch[] scratch = searchScratch.get();
+		SearchScratch forward = scratch[0];
+		SearchScratch backward = scratch[1];
+		int meeting = search(forward, backward, from, to);
+		if (meeting < 0) {
+			return new int[0];
+		}
+
+		// From the start to the meeting cell, then from the meeting cell to the target
+		int[] head = forward.getPath(maze, from, meeting);
+		int length = head.length;
+		for (int cell = meeting; cell != to; cell = maze.getNeighbor(cell, backward.getCameFrom(cell))) {
+			length++;
+		}
+		int[] path = Arrays.copyOf(head, length);
+		int i = head.length;
+		for (int cell = meeting; cell != to; ) {
+			cell = maze.getNeighbor(cell, backward.getCameFrom(cell));
+			path[i++] = cell;
+		}
+		return path;
+	}
+
+	@Override
+	public int nextStep(int from, int to) {
+		int[] path = findPath(from, to);
+		return path.length == 0 ? from : path[0];
+	}
+
+	@Override
+	public long getNbExpanded() {
+		return nbExpanded.sum();
+	}
+
+	/**
+	 * Runs the two searches until they meet. The first cell reached by both is on a shortest path: when a
+	 * search reaches it, the other one has expanded all the cells closer to its end, any of which on a shorter
+	 * path would have been reached by both already.
+	 *
+	 * @param forward  The scratch of the search from the start cell.
+	 * @param backward The scratch of the search from the target cell.
+	 * @param from     The id of the start cell.
+	 * @param to       The id of the target cell.
+	 * @return The id of the cell where the searches met, or -1 if the target cannot be reached.
+	 */
+	private int search(SearchScratch forward, SearchScratch backward, int from, int to) {
+		forward.reset();
+		backward.reset();
+		forward.visit(from, 0);
+		backward.visit(to, 0);
+		forward.getQueue().add(from);
+		backward.getQueue().add(to);
+		int meeting = -1;
+		while (meeting < 0 && !forward.getQueue().isEmpty() && !backward.getQueue().isEmpty()) {
+			if (forward.getQueue().size() <= backward.getQueue().size()) {
+				meeting = expandLevel(forward, backward);
+			} else {
+				meeting = expandLevel(backward, forward);
+			}
+		}
+		return meeting;
+	}
+
+	/**
+	 * Expands the cells of the frontier of a search, queuing the cells of the next level.
+	 *
+	 * @param own   The scratch of the search to expand.
+	 * @param other The scratch of the search from the other end.
+	 * @return The id of the first cell reached that the other search already visited, or -1 if there is none.
+	 */
+	private int expandLevel(SearchScratch own, SearchScratch other) {
+		CellGrid cells = maze.getCells();
+		CellQueue queue = own.getQueue();
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+		int meeting = -1;
+		int expanded = 0;
+		for (int n = queue.size(); n > 0 && meeting < 0; n--) {
+			int cell = queue.poll();
+			expanded++;
+			int bits = cells.get(cell);
+			int x = cell % width;
+			int y = cell / width;
+			if (x > 0 && (bits & Maze.LEFT) != 0 && reach(own, other, cell - 1, Maze.RIGHT)) {
+				meeting = cell - 1;
+			} else if (x < width - 1 && (bits & Maze.RIGHT) != 0 && reach(own, other, cell + 1, Maze.LEFT)) {
+				meeting = cell + 1;
+			} else if (y > 0 && (bits & Maze.TOP) != 0 && reach(own, other, cell - width, Maze.BOTTOM)) {
+				meeting = cell - width;
+			} else if (y < height - 1 && (bits & Maze.BOTTOM) != 0
+					&& reach(own, other, cell + width, Maze.TOP)) {
+				meeting = cell + width;
+			}
+		}
+		nbExpanded.add(expanded);
+		return meeting;
+	}
+
+	/**
+	 * Visits a cell from a neighbor and queues it, unless the search already visited it.
+	 *
+	 * @param own   The scratch of the search.
+	 * @param other The scratch of the search from the other end.
+	 * @param cell  The id of the cell.
+	 * @param side  The side of the cell leading back to the neighbor it is reached from.
+	 * @return True if the cell was newly visited and the other search already visited it, false otherwise.
+	 */
+	private boolean reach(SearchScratch own, SearchScratch other, int cell, int side) {
+		if (own.isVisited(cell)) {
+			return false;
+		}
+		own.visit(cell, side);
+		own.getQueue().add(cell);
+		return other.isVisited(cell);
+	}
+}
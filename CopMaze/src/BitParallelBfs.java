@@ -0,0 +1,260 @@
+import java.util.Arrays;
+
+/**
+ * The BitParallelBfs class computes the distances from a cell to all the cells of a maze with a breadth-first
+ * search that moves whole words of cells at once (model class). The frontier and the visited cells are bitsets
+ * in row order, one word holding 64 cells of a row, and the moves allowed are two row-order masks built from
+ * the wall bitmaps: the cells whose right side is open, and the cells whose bottom side is open. A level of
+ * the search shifts each word of the frontier left and right within its row, and moves it to the rows above
+ * and below, against these masks, so all the frontier cells of a word advance in a few operations. Only the
+ * words holding frontier cells are touched, so a thin frontier, like the corridors of a maze or the diagonal
+ * front of an open area, costs about as much as a search cell by cell, without its queue.
+ *
+ * The masks and bitsets of a word are interleaved, so that the search touches a single cache line per word.
+ */
+public class BitParallelBfs {
+	/**
+	 * The slot of the cells that can move to their right neighbor.
+	 */
+	private static final int RIGHT = 0;
+
+	/**
+	 * The slot of the cells that can move to their bottom neighbor.
+	 */
+	private static final int DOWN = 1;
+
+	/**
+	 * The slot of the cells visited by the search.
+	 */
+	private static final int VISITED = 2;
+
+	/**
+	 * The slot of the cells of the next level of the search, being gathered.
+	 */
+	private static final int NEXT = 3;
+
+	/**
+	 * The width of the maze.
+	 */
+	private int width;
+
+	/**
+	 * The height of the maze.
+	 */
+	private int height;
+
+	/**
+	 * The number of words of each row, a power of two so that the row of a word is a shift away.
+	 */
+	private int wordsPerRow;
+
+	/**
+	 * The base 2 logarithm of wordsPerRow.
+	 */
+	private int rowShift;
+
+	/**
+	 * The four slots of each word, word after word.
+	 */
+	private long[] slots;
+
+	/**
+	 * The words holding cells of the current level.
+	 */
+	private int[] active;
+
+	/**
+	 * The cells of the current level in each word of active.
+	 */
+	private long[] frontier;
+
+	/**
+	 * The words holding cells of the next level.
+	 */
+	private int[] nextActive;
+
+	/**
+	 * The number of words of the next level.
+	 */
+	private int nbNextActive;
+
+	/**
+	 * Builds the masks of the moves of a maze from its wall bitmaps.
+	 *
+	 * @param walls The wall bitmaps of the maze, with the same walls on both sides of each passage.
+	 */
+	public BitParallelBfs(WallBitmaps walls) {
+		WallLayer horizontal = walls.getHorizontal();
+		WallLayer vertical = walls.getVertical();
+		width = horizontal.getLineLength();
+		height = vertical.getLineLength();
+		int usedWordsPerRow = (width + 63) >>> 6;
+		rowShift = 32 - Integer.numberOfLeadingZeros(usedWordsPerRow - 1);
+		wordsPerRow = 1 << rowShift;
+		int nbWords = wordsPerRow * height;
+		slots = new long[nbWords * 4];
+		active = new int[nbWords];
+		frontier = new long[nbWords];
+		nextActive = new int[nbWords];
+
+		// Line y + 1 of the horizontal walls is already in row order, only the valid bits are kept
+		for (int y = 0; y < height - 1; y++) {
+			for (int w = 0; w < usedWordsPerRow; w++) {
+				slots[(((y << rowShift) + w) << 2) + DOWN] = ~horizontal.getWord(y + 1, w) & validBits(w);
+			}
+		}
+
+		// The vertical walls are in column order, they are transposed by blocks of 64 columns and 64 rows
+		long[] block = new long[64];
+		int wordsPerColumn = (height + 63) >>> 6;
+		for (int w = 0; w < usedWordsPerRow; w++) {
+			for (int v = 0; v < wordsPerColumn; v++) {
+				for (int i = 0; i < 64; i++) {
+					int x = (w << 6) + i;
+					// The right side of column x is line x + 1, the right border excluded
+					block[i] = x < width - 1 ? ~vertical.getWord(x + 1, v) : 0;
+				}
+				transpose(block);
+				for (int j = 0; j < 64 && (v << 6) + j < height; j++) {
+					slots[((((v << 6) + j) << rowShift) + w << 2) + RIGHT] = block[j];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the number of steps from a cell to all the cells of the maze, level by level.
+	 *
+	 * @param source    The id of the cell to start from.
+	 * @param distances The array receiving the distance of each cell, -1 for the cells that cannot be reached,
+	 *                  or null to only count the cells reached.
+	 * @return The number of cells reached, the source included.
+	 */
+	public int computeDistances(int source, int[] distances) {
+		for (int i = VISITED; i < slots.length; i += 4) {
+			slots[i] = 0;
+		}
+		if (distances != null) {
+			Arrays.fill(distances, -1);
+			distances[source] = 0;
+		}
+		int sourceWord = ((source / width) << rowShift) + ((source % width) >>> 6);
+		slots[(sourceWord << 2) + VISITED] = 1L << (source % width);
+		active[0] = sourceWord;
+		frontier[0] = 1L << (source % width);
+		int nbActive = 1;
+		int nbReached = 1;
+		for (int level = 1; nbActive > 0; level++) {
+			nbNextActive = 0;
+			for (int i = 0; i < nbActive; i++) {
+				expand(active[i], frontier[i]);
+			}
+			for (int i = 0; i < nbNextActive; i++) {
+				int word = nextActive[i];
+				long bits = slots[(word << 2) + NEXT];
+				slots[(word << 2) + NEXT] = 0;
+				slots[(word << 2) + VISITED] |= bits;
+				frontier[i] = bits;
+				nbReached += Long.bitCount(bits);
+				if (distances != null) {
+					int first = (word >>> rowShift) * width + ((word & (wordsPerRow - 1)) << 6);
+					for (; bits != 0; bits &= bits - 1) {
+						distances[first + Long.numberOfTrailingZeros(bits)] = level;
+					}
+				}
+			}
+			int[] swap = active;
+			active = nextActive;
+			nextActive = swap;
+			nbActive = nbNextActive;
+		}
+		return nbReached;
+	}
+
+	/**
+	 * Gets the memory used by the masks and bitsets of the search.
+	 *
+	 * @return The size of the arrays in bytes.
+	 */
+	public long getMemoryBytes() {
+		return 8L * (slots.length + frontier.length) + 4L * (active.length + nextActive.length);
+	}
+
+	/**
+	 * Moves the cells of a word of the frontier one step in every open direction. The last cell of a row
+	 * cannot move right, so no move carries from one row to the next.
+	 *
+	 * @param word  The index of the word.
+	 * @param cells The cells of the frontier in the word.
+	 */
+	private void expand(int word, long cells) {
+		int base = word << 2;
+
+		// Right, and left where the cell on the left can move right, the cells at the ends of the word
+		// moving to the next or the previous word
+		long right = cells & slots[base + RIGHT];
+		long leftOpen = slots[base + RIGHT] << 1;
+		if (word > 0) {
+			leftOpen |= slots[base - 4 + RIGHT] >>> 63;
+		}
+		long left = cells & leftOpen;
+		reach(word, (right << 1) | (left >>> 1));
+		reach(word + 1, right >>> 63);
+		reach(word - 1, left << 63);
+
+		// Down and up, allowed where the upper cell can move down, which the cells of the last row cannot
+		reach(word + wordsPerRow, cells & slots[base + DOWN]);
+		if (word >= wordsPerRow) {
+			reach(word - wordsPerRow, cells & slots[base - (wordsPerRow << 2) + DOWN]);
+		}
+	}
+
+	/**
+	 * Adds the cells of a word not visited yet to the next level.
+	 *
+	 * @param word  The index of the word, only read if some cells are reached.
+	 * @param cells The cells reached in the word.
+	 */
+	private void reach(int word, long cells) {
+		if (cells == 0) {
+			return;
+		}
+		int base = word << 2;
+		cells &= ~slots[base + VISITED];
+		if (cells == 0) {
+			return;
+		}
+		if (slots[base + NEXT] == 0) {
+			nextActive[nbNextActive++] = word;
+		}
+		slots[base + NEXT] |= cells;
+	}
+
+	/**
+	 * Gets the bits of a word of a row that are cells of the maze.
+	 *
+	 * @param w The index of the word along the row.
+	 * @return The mask of the valid bits.
+	 */
+	private long validBits(int w) {
+		int nbBits = width - (w << 6);
+		return nbBits >= 64 ? -1L : (1L << nbBits) - 1;
+	}
+
+	/**
+	 * Transposes a 64 by 64 bit matrix in place, bit j of word i going to bit i of word j. Each step swaps the
+	 * off-diagonal blocks of all the blocks of the previous step, halving their size.
+	 *
+	 * @param block The 64 words of the matrix.
+	 */
+	private static void transpose(long[] block) {
+		long mask = 0x00000000FFFFFFFFL;
+		for (int j = 32; j != 0; j >>>= 1, mask ^= mask << j) {
+			for (int k = 0; k < 64; k = ((k | j) + 1) & ~j) {
+				long t = ((block[k] >>> j) ^ block[k | j]) & mask;
+				block[k] ^= t << j;
+				block[k | j] ^= t;
+			}
+		}
+	}
+}
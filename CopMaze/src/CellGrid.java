@@ -0,0 +1,137 @@
+/**
+ * The CellGrid interface represents the storage of the cells of a maze, row by row (model class).
+ * The id of the cell (x, y) is x + y * width. Each cell holds the LEFT, BOTTOM, RIGHT and TOP bits
+ * of its open passages and the GEM flag, which fit in a byte.
+ * Implementations only need to provide the dimensions and the access to a single cell.
+ */
+public interface CellGrid {
+	/**
+	 * Gets the width of the grid.
+	 *
+	 * @return The number of columns.
+	 */
+	int getWidth();
+
+	/**
+	 * Gets the height of the grid.
+	 *
+	 * @return The number of rows.
+	 */
+	int getHeight();
+
+	/**
+	 * Gets the bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The bits of the cell.
+	 */
+	int get(int cell);
+
+	/**
+	 * Replaces the bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @param bits The new bits of the cell.
+	 */
+	void set(int cell, int bits);
+
+	/**
+	 * Gets the number of cells of the grid.
+	 *
+	 * @return The width times the height.
+	 */
+	default int size() {
+		return getWidth() * getHeight();
+	}
+
+	/**
+	 * Gets the id of a cell.
+	 *
+	 * @param x The x-coordinate of the cell.
+	 * @param y The y-coordinate of the cell.
+	 * @return The id of the cell, x + y * width.
+	 */
+	default int index(int x, int y) {
+		return x + y * getWidth();
+	}
+
+	/**
+	 * Gets the bits of a cell.
+	 *
+	 * @param x The x-coordinate of the cell.
+	 * @param y The y-coordinate of the cell.
+	 * @return The bits of the cell.
+	 */
+	default int get(int x, int y) {
+		return get(index(x, y));
+	}
+
+	/**
+	 * Sets some bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @param bits The bits to set.
+	 */
+	default void setBits(int cell, int bits) {
+		set(cell, get(cell) | bits);
+	}
+
+	/**
+	 * Clears some bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @param bits The bits to clear.
+	 */
+	default void clearBits(int cell, int bits) {
+		set(cell, get(cell) & ~bits);
+	}
+
+	/**
+	 * Opens the passage between a cell and its neighbor by removing the wall on both sides.
+	 *
+	 * @param x The x-coordinate of the cell.
+	 * @param y The y-coordinate of the cell.
+	 * @param direction The wall to remove: LEFT, BOTTOM, RIGHT, or TOP.
+	 */
+	default void openPassage(int x, int y, int direction) {
+		int cell = index(x, y);
+		setBits(cell, direction);
+		if (direction == Maze.LEFT) {
+			setBits(cell - 1, Maze.RIGHT);
+		} else if (direction == Maze.RIGHT) {
+			setBits(cell + 1, Maze.LEFT);
+		} else if (direction == Maze.TOP) {
+			setBits(cell - getWidth(), Maze.BOTTOM);
+		} else { // Bottom
+			setBits(cell + getWidth(), Maze.TOP);
+		}
+	}
+
+	/**
+	 * Copies a smaller grid into this one.
+	 *
+	 * @param tile The grid to copy.
+	 * @param x0 The x-coordinate where the left column of the tile goes.
+	 * @param y0 The y-coordinate where the top row of the tile goes.
+	 */
+	default void copy(CellGrid tile, int x0, int y0) {
+		for (int j = 0; j < tile.getHeight(); j++) {
+			for (int i = 0; i < tile.getWidth(); i++) {
+				set(index(x0 + i, y0 + j), tile.get(i, j));
+			}
+		}
+	}
+
+	/**
+	 * Replaces the bits of a row of cells.
+	 *
+	 * @param y The y-coordinate of the row.
+	 * @param row The new bits of the cells of the row, indexed by x.
+	 */
+	default void setRow(int y, int[] row) {
+		int offset = index(0, y);
+		for (int x = 0; x < getWidth(); x++) {
+			set(offset + x, row[x]);
+		}
+	}
+}
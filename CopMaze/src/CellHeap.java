@@ -0,0 +1,110 @@
+import java.util.Arrays;
+
+/**
+ * The CellHeap class is a binary min-heap of cell ids ordered by an int priority (model class). Each entry
+ * is packed in a long, the priority in the high half and the cell id in the low half, so the heap is a
+ * single primitive array compared with plain long comparisons. Equal priorities are ordered by cell id.
+ * The array doubles when full and is never shrunk, so a heap reused across searches stops allocating.
+ */
+public class CellHeap {
+	/**
+	 * The initial capacity of the heap.
+	 */
+	private static final int INITIAL_CAPACITY = 256;
+
+	/**
+	 * The packed entries, in heap order.
+	 */
+	private long[] entries = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The number of entries in the heap.
+	 */
+	private int size = 0;
+
+	/**
+	 * Empties the heap, keeping its array.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Checks if the heap is empty.
+	 *
+	 * @return True if the heap holds no entry, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds a cell to the heap.
+	 *
+	 * @param priority The non-negative priority of the cell, the lowest coming out first.
+	 * @param cell     The id of the cell.
+	 */
+	public void add(int priority, int cell) {
+		if (size == entries.length) {
+			entries = Arrays.copyOf(entries, size * 2);
+		}
+		long entry = ((long) priority << 32) | cell;
+		// Sift up
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (entries[parent] <= entry) {
+				break;
+			}
+			entries[i] = entries[parent];
+			i = parent;
+		}
+		entries[i] = entry;
+	}
+
+	/**
+	 * Takes the entry with the lowest priority out of the heap.
+	 *
+	 * @return The packed entry, whose priority is given by priorityOf and cell by cellOf.
+	 */
+	public long poll() {
+		long top = entries[0];
+		long last = entries[--size];
+		// Sift down
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && entries[child + 1] < entries[child]) {
+				child++;
+			}
+			if (last <= entries[child]) {
+				break;
+			}
+			entries[i] = entries[child];
+			i = child;
+		}
+		entries[i] = last;
+		return top;
+	}
+
+	/**
+	 * Gets the priority of a packed entry.
+	 *
+	 * @param entry The entry returned by poll.
+	 * @return The priority of the entry.
+	 */
+	public static int priorityOf(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	/**
+	 * Gets the cell of a packed entry.
+	 *
+	 * @param entry The entry returned by poll.
+	 * @return The id of the cell.
+	 */
+	public static int cellOf(long entry) {
+		return (int) entry;
+	}
+}
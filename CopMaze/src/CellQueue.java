@@ -0,0 +1,87 @@
+/**
+ * The CellQueue class is a first-in first-out queue of cell ids (model class). It is a ring buffer whose
+ * capacity is a power of two, so that positions wrap with a mask. The buffer doubles when full and is never
+ * shrunk, so once a few searches have run it matches the largest frontier and no longer allocates.
+ */
+public class CellQueue {
+	/**
+	 * The initial capacity of the buffer.
+	 */
+	private static final int INITIAL_CAPACITY = 256;
+
+	/**
+	 * The ring buffer of cell ids.
+	 */
+	private int[] buffer = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The total number of cell ids taken out of the queue since it was cleared.
+	 */
+	private int head = 0;
+
+	/**
+	 * The total number of cell ids put in the queue since it was cleared.
+	 */
+	private int tail = 0;
+
+	/**
+	 * Empties the queue, keeping its buffer.
+	 */
+	public void clear() {
+		head = 0;
+		tail = 0;
+	}
+
+	/**
+	 * Checks if the queue is empty.
+	 *
+	 * @return True if the queue holds no cell, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return head == tail;
+	}
+
+	/**
+	 * Gets the number of cells in the queue.
+	 *
+	 * @return The number of cell ids queued and not taken out yet.
+	 */
+	public int size() {
+		return tail - head;
+	}
+
+	/**
+	 * Adds a cell id at the end of the queue.
+	 *
+	 * @param cell The id of the cell.
+	 */
+	public void add(int cell) {
+		if (tail - head == buffer.length) {
+			grow();
+		}
+		buffer[tail++ & (buffer.length - 1)] = cell;
+	}
+
+	/**
+	 * Takes the cell id at the front of the queue.
+	 *
+	 * @return The id of the cell.
+	 */
+	public int poll() {
+		return buffer[head++ & (buffer.length - 1)];
+	}
+
+	/**
+	 * Doubles the capacity of the buffer, unwrapping the queued cells at its start.
+	 */
+	private void grow() {
+		int[] larger = new int[buffer.length * 2];
+		int size = tail - head;
+		for (int i = 0; i < size; i++) {
+			larger[i] = buffer[(head + i) & (buffer.length - 1)];
+		}
+		buffer = larger;
+		head = 0;
+		tail = size;
+	}
+}
@@ -51,9 +51,9 @@ public class CopMaze extends Application {
 	 * An array of predefined game difficulty levels.
 	 */
 	private static final DifficultyLevel[] DIFFICULTY_LEVELS = new DifficultyLevel[] {
-			new DifficultyLevel("Easy", 3, 1, 2, 18, 14, 0.3, 100),
-			new DifficultyLevel("Hard", 5, 2, 2, 20, 15, 0.2, 100),
-			new DifficultyLevel("Super Hard", 7, 3, 2, 22, 16, 0.1, 150) };
+			new DifficultyLevel("Easy", 3, 1, 2, 18, 14, 0.3, 100, new WilsonGenerator()),
+			new DifficultyLevel("Hard", 5, 2, 2, 20, 15, 0.2, 100, new WilsonGenerator()),
+			new DifficultyLevel("Super Hard", 7, 3, 2, 22, 16, 0.1, 150, new WilsonGenerator()) };
 
 	/**
 	 * The initial scene for the game (main menu).
@@ -185,6 +185,11 @@ public class CopMaze extends Application {
 	 */
 	private Maze maze;
 
+	/**
+	 * The pool generating the mazes of each difficulty level ahead of time.
+	 */
+	private MazePool mazePool = new MazePool(2);
+
 	/**
 	 * The main entry point for the JavaFX application.
 	 *
@@ -228,6 +233,10 @@ public class CopMaze extends Application {
 		levelGUI(levelRoot);
 		ruleGUI(ruleRoot);
 
+		for (DifficultyLevel dl : DIFFICULTY_LEVELS) {
+			mazePool.fill(dl);
+		}
+
 		String css = this.getClass().getResource("styles.css").toExternalForm();
 		initScene.getStylesheets().add(css);
 		characterScene.getStylesheets().add(css);
@@ -412,8 +421,8 @@ public class CopMaze extends Application {
 	public void mazeGUI(BorderPane root) {
 		root.setId("mazeScene");
 
-		maze = new Maze(difficultyLevel.mazeWidth, difficultyLevel.mazeHeight, difficultyLevel.easiness, player,
-				difficultyLevel.nbGems, difficultyLevel.nbPolice);
+		maze = mazePool.take(difficultyLevel, player);
+		maze.start();
 
 		Label label = new Label(difficultyLevel.name);
 		label.setId("levelLabel");
@@ -633,74 +642,3 @@ class CharacterInfo {
 		this.sprite_id = sprite_id;
 	}
 }
-
-/**
- * Represents information about a game difficulty level, including the number of
- * gems, police, maze size, and other settings (model class).
- */
-class DifficultyLevel {
-	/**
-	 * The name of the difficulty level.
-	 */
-	public String name;
-
-	/**
-	 * The number of gems in the game.
-	 */
-	public int nbGems;
-
-	/**
-	 * The number of police characters in the game.
-	 */
-	public int nbPolice;
-
-	/**
-	 * The number of in-game days (or rounds).
-	 */
-	public int nbDays;
-
-	/**
-	 * The width of the maze for this difficulty level.
-	 */
-	public int mazeWidth;
-
-	/**
-	 * The height of the maze for this difficulty level.
-	 */
-	public int mazeHeight;
-
-	/**
-	 * The easiness factor for the difficulty level, affecting character behavior.
-	 */
-	public double easiness;
-
-	/**
-	 * The preferred button width for UI elements related to this difficulty level.
-	 */
-	public int buttonWidth;
-
-	/**
-	 * Constructs a new DifficultyLevel with the specified settings.
-	 *
-	 * @param name        The name of the difficulty level.
-	 * @param nbGems      The number of gems in the game.
-	 * @param nbPolice    The number of police characters in the game.
-	 * @param nbDays      The number of in-game days (or rounds).
-	 * @param mazeWidth   The width of the maze for this difficulty level.
-	 * @param mazeHeight  The height of the maze for this difficulty level.
-	 * @param easiness    The easiness factor affecting character behavior.
-	 * @param buttonWidth The preferred button width for UI elements related to this
-	 *                    difficulty level.
-	 */
-	public DifficultyLevel(String name, int nbGems, int nbPolice, int nbDays, int mazeWidth, int mazeHeight,
-			double easiness, int buttonWidth) {
-		this.name = name;
-		this.nbGems = nbGems;
-		this.nbPolice = nbPolice;
-		this.nbDays = nbDays;
-		this.mazeWidth = mazeWidth;
-		this.mazeHeight = mazeHeight;
-		this.easiness = easiness;
-		this.buttonWidth = buttonWidth;
-	}
-}
\ No newline at end of file
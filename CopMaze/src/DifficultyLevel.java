@@ -0,0 +1,77 @@
+/**
+ * Represents information about a game difficulty level, including the number of
+ * gems, police, maze size, and other settings (model class).
+ */
+class DifficultyLevel {
+	/**
+	 * The name of the difficulty level.
+	 */
+	public String name;
+
+	/**
+	 * The number of gems in the game.
+	 */
+	public int nbGems;
+
+	/**
+	 * The number of police characters in the game.
+	 */
+	public int nbPolice;
+
+	/**
+	 * The number of in-game days (or rounds).
+	 */
+	public int nbDays;
+
+	/**
+	 * The width of the maze for this difficulty level.
+	 */
+	public int mazeWidth;
+
+	/**
+	 * The height of the maze for this difficulty level.
+	 */
+	public int mazeHeight;
+
+	/**
+	 * The easiness factor for the difficulty level, affecting character behavior.
+	 */
+	public double easiness;
+
+	/**
+	 * The preferred button width for UI elements related to this difficulty level.
+	 */
+	public int buttonWidth;
+
+	/**
+	 * The algorithm used to generate the maze for this difficulty level.
+	 */
+	public MazeGenerator generator;
+
+	/**
+	 * Constructs a new DifficultyLevel with the specified settings.
+	 *
+	 * @param name        The name of the difficulty level.
+	 * @param nbGems      The number of gems in the game.
+	 * @param nbPolice    The number of police characters in the game.
+	 * @param nbDays      The number of in-game days (or rounds).
+	 * @param mazeWidth   The width of the maze for this difficulty level.
+	 * @param mazeHeight  The height of the maze for this difficulty level.
+	 * @param easiness    The easiness factor affecting character behavior.
+	 * @param buttonWidth The preferred button width for UI elements related to this
+	 *                    difficulty level.
+	 * @param generator   The algorithm used to generate the maze.
+	 */
+	public DifficultyLevel(String name, int nbGems, int nbPolice, int nbDays, int mazeWidth, int mazeHeight,
+			double easiness, int buttonWidth, MazeGenerator generator) {
+		this.name = name;
+		this.nbGems = nbGems;
+		this.nbPolice = nbPolice;
+		this.nbDays = nbDays;
+		this.mazeWidth = mazeWidth;
+		this.mazeHeight = mazeHeight;
+		this.easiness = easiness;
+		this.buttonWidth = buttonWidth;
+		this.generator = generator;
+	}
+}
@@ -0,0 +1,164 @@
+import java.util.Arrays;
+
+/**
+ * The DirectionField class stores, for every cell of a maze, the side to leave it by to get one step closer
+ * to a source cell (model class). It is filled by a single breadth-first search from the source, after which
+ * anyone heading to the source steps down the gradient in constant time, whatever their number. The sides
+ * are packed 2 bits per cell (0 to 3 for LEFT, BOTTOM, RIGHT, and TOP), with one more bit per cell telling
+ * whether the cell can reach the source at all.
+ */
+public class DirectionField {
+	/**
+	 * The width of the maze, to turn sides into neighboring cell ids.
+	 */
+	private int width;
+
+	/**
+	 * The id of the source cell, -1 before the field is computed.
+	 */
+	private int source = -1;
+
+	/**
+	 * The side towards the source of each cell, packed 2 bits per cell, 32 cells per word.
+	 */
+	private long[] directions;
+
+	/**
+	 * The cells reached by the search from the source, one bit per cell.
+	 */
+	private long[] reached;
+
+	/**
+	 * The queue of the search, reused when the field is computed again.
+	 */
+	private CellQueue queue = new CellQueue();
+
+	/**
+	 * The buffer receiving the valid moves from a cell during the search.
+	 */
+	private int[] moves = new int[4];
+
+	/**
+	 * Creates an empty field for a maze.
+	 *
+	 * @param nbCells The number of cells of the maze.
+	 * @param width   The width of the maze.
+	 */
+	public DirectionField(int nbCells, int width) {
+		this.width = width;
+		directions = new long[(nbCells + 31) >>> 5];
+		reached = new long[(nbCells + 63) >>> 6];
+	}
+
+	/**
+	 * Computes the field towards a source cell, replacing the previous one.
+	 *
+	 * @param maze   The maze, whose walls must not change during the computation.
+	 * @param source The id of the source cell.
+	 * @return The number of cells reached, the source included.
+	 */
+	public int compute(Maze maze, int source) {
+		this.source = source;
+		Arrays.fill(reached, 0);
+		queue.clear();
+		reached[source >>> 6] |= 1L << source;
+		queue.add(source);
+		int nbReached = 0;
+		while (!queue.isEmpty()) {
+			int cell = queue.poll();
+			nbReached++;
+			int nbMoves = maze.getValidMoves(cell, moves);
+			for (int i = 0; i < nbMoves; i++) {
+				int next = moves[i];
+				if (!isReached(next)) {
+					reached[next >>> 6] |= 1L << next;
+					setDirection(next, sideTowards(next, cell));
+					queue.add(next);
+				}
+			}
+		}
+		return nbReached;
+	}
+
+	/**
+	 * Gets the id of the source cell of the field.
+	 *
+	 * @return The id of the source cell, -1 if the field has not been computed.
+	 */
+	public int getSource() {
+		return source;
+	}
+
+	/**
+	 * Checks if a cell can reach the source.
+	 *
+	 * @param cell The id of the cell.
+	 * @return True if the cell was reached by the search from the source, false otherwise.
+	 */
+	public boolean isReached(int cell) {
+		return (reached[cell >>> 6] & (1L << cell)) != 0;
+	}
+
+	/**
+	 * Gets the next cell on a shortest path from a cell to the source.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The id of the next cell, or the cell itself if it is the source or cannot reach it.
+	 */
+	public int nextStep(int cell) {
+		if (cell == source || !isReached(cell)) {
+			return cell;
+		}
+		int code = (int) ((directions[cell >>> 5] >>> ((cell & 31) << 1)) & 3);
+		if (code == 0) { // Left
+			return cell - 1;
+		} else if (code == 1) { // Bottom
+			return cell + width;
+		} else if (code == 2) { // Right
+			return cell + 1;
+		} else { // Top
+			return cell - width;
+		}
+	}
+
+	/**
+	 * Gets the memory used by the tables of the field.
+	 *
+	 * @return The size of the tables in bytes.
+	 */
+	public long getMemoryBytes() {
+		return 8L * (directions.length + reached.length);
+	}
+
+	/**
+	 * Gets the side of a cell leading to an adjacent cell.
+	 *
+	 * @param cell     The id of the cell.
+	 * @param adjacent The id of the adjacent cell.
+	 * @return LEFT, BOTTOM, RIGHT, or TOP.
+	 */
+	private int sideTowards(int cell, int adjacent) {
+		// Rows are checked first, so a maze one cell wide has no ambiguity
+		if (adjacent == cell - width) {
+			return Maze.TOP;
+		} else if (adjacent == cell + width) {
+			return Maze.BOTTOM;
+		} else if (adjacent == cell - 1) {
+			return Maze.LEFT;
+		} else {
+			return Maze.RIGHT;
+		}
+	}
+
+	/**
+	 * Stores the side towards the source of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @param side LEFT, BOTTOM, RIGHT, or TOP.
+	 */
+	private void setDirection(int cell, int side) {
+		int shift = (cell & 31) << 1;
+		long code = Integer.numberOfTrailingZeros(side);
+		directions[cell >>> 5] = (directions[cell >>> 5] & ~(3L << shift)) | (code << shift);
+	}
+}
@@ -0,0 +1,404 @@
+import java.util.Arrays;
+
+/**
+ * The DistanceOracle class answers distance and next step queries between any two cells of a maze without
+ * searching (model class). A perfect maze is a tree, so the distance between two cells is their tree distance,
+ * found from their lowest common ancestor. The ancestor is the shallowest cell of the Euler tour of the tree
+ * between their first occurrences, found with a sparse table over blocks of the tour and a scan inside the
+ * blocks at both ends.
+ *
+ * The walls removed to make the maze easier add edges outside the tree. A shortest path using one of them
+ * goes through its ends, so the ends become hubs, each labeled with its distance to every cell, and the distance
+ * is the lowest of the tree distance and of the paths through each hub. The labels cost one int per hub and
+ * cell, so when there are too many hubs the oracle is not exact and must not be used.
+ */
+public class DistanceOracle {
+	/**
+	 * The number of Euler tour positions per block of the sparse table.
+	 */
+	private static final int BLOCK_SIZE = 32;
+
+	/**
+	 * The maximum number of hub labels (hubs times cells) stored.
+	 */
+	private static final long MAX_LABELS = 16L << 20;
+
+	/**
+	 * The sides of a cell, in the order they are tried.
+	 */
+	private static final int[] SIDES = {Maze.LEFT, Maze.RIGHT, Maze.TOP, Maze.BOTTOM};
+
+	/**
+	 * The maze, whose walls must not change.
+	 */
+	private Maze maze;
+
+	/**
+	 * The number of cells of the maze.
+	 */
+	private int nbCells;
+
+	/**
+	 * The parent of each cell in the spanning tree, -1 for the root.
+	 */
+	private int[] parents;
+
+	/**
+	 * The depth of each cell in the spanning tree.
+	 */
+	private int[] depths;
+
+	/**
+	 * The cells in the order of the Euler tour of the spanning tree.
+	 */
+	private int[] eulerTour;
+
+	/**
+	 * The position of the first occurrence of each cell in the Euler tour.
+	 */
+	private int[] firstOccurrences;
+
+	/**
+	 * The position after the last occurrence of a cell of the subtree of each cell in the Euler tour.
+	 */
+	private int[] subtreeEnds;
+
+	/**
+	 * The sparse table: at level k, the position of the shallowest cell of the tour within 2^k blocks
+	 * starting at each block.
+	 */
+	private int[][] blockMinima;
+
+	/**
+	 * The number of hubs.
+	 */
+	private int nbHubs = 0;
+
+	/**
+	 * The distance from each cell to each hub, hub after hub for each cell.
+	 */
+	private int[] hubLabels;
+
+	/**
+	 * True if the distances are exact: the maze is connected and its hub labels fit.
+	 */
+	private boolean exact;
+
+	/**
+	 * The version of the walls of the maze the oracle was built with.
+	 */
+	private long version;
+
+	/**
+	 * Builds the oracle of a maze.
+	 *
+	 * @param maze The maze, whose walls must not change.
+	 */
+	public DistanceOracle(Maze maze) {
+		this.maze = maze;
+		version = maze.getVersion();
+		nbCells = maze.getWidth() * maze.getHeight();
+		int nbExtraEdges = buildTree();
+		exact = eulerTour != null;
+		if (!exact) {
+			return;
+		}
+		buildSparseTable();
+		if (nbExtraEdges > 0) {
+			exact = buildHubLabels(nbExtraEdges);
+		}
+	}
+
+	/**
+	 * Walks the maze depth first, which gives the spanning tree, its Euler tour, and the edges outside of it.
+	 *
+	 * @return The number of edges outside the tree.
+	 */
+	private int buildTree() {
+		parents = new int[nbCells];
+		depths = new int[nbCells];
+		firstOccurrences = new int[nbCells];
+		subtreeEnds = new int[nbCells];
+		Arrays.fill(depths, -1);
+		int[] tour = new int[2 * nbCells - 1];
+		int[] stack = new int[nbCells];
+		byte[] nextMoves = new byte[nbCells];
+		int tourLength = 0;
+		int nbExtraEdges = 0;
+		int[] moves = new int[4];
+
+		int stackSize = 1;
+		stack[0] = 0;
+		parents[0] = -1;
+		depths[0] = 0;
+		firstOccurrences[0] = tourLength;
+		tour[tourLength++] = 0;
+		while (stackSize > 0) {
+			int cell = stack[stackSize - 1];
+			int nbMoves = maze.getValidMoves(cell, moves);
+			if (nextMoves[cell] < nbMoves) {
+				int next = moves[nextMoves[cell]++];
+				if (depths[next] < 0) {
+					parents[next] = cell;
+					depths[next] = depths[cell] + 1;
+					firstOccurrences[next] = tourLength;
+					tour[tourLength++] = next;
+					stack[stackSize++] = next;
+				} else if (next != parents[cell] && depths[next] < depths[cell]) {
+					// Each edge outside the tree is met twice, it is counted from its deeper end
+					nbExtraEdges++;
+				}
+			} else {
+				stackSize--;
+				subtreeEnds[cell] = tourLength;
+				if (stackSize > 0) {
+					tour[tourLength++] = stack[stackSize - 1];
+				}
+			}
+		}
+		// Cells the walk did not reach have no tree distance
+		eulerTour = tourLength == tour.length ? tour : null;
+		return nbExtraEdges;
+	}
+
+	/**
+	 * Builds the sparse table over the blocks of the Euler tour.
+	 */
+	private void buildSparseTable() {
+		int nbBlocks = (eulerTour.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		int nbLevels = 32 - Integer.numberOfLeadingZeros(nbBlocks);
+		blockMinima = new int[nbLevels][];
+		blockMinima[0] = new int[nbBlocks];
+		for (int block = 0; block < nbBlocks; block++) {
+			int start = block * BLOCK_SIZE;
+			blockMinima[0][block] = scanMinimum(start, Math.min(eulerTour.length, start + BLOCK_SIZE) - 1);
+		}
+		for (int level = 1; level < nbLevels; level++) {
+			int span = 1 << (level - 1);
+			blockMinima[level] = new int[nbBlocks - 2 * span + 1];
+			for (int block = 0; block < blockMinima[level].length; block++) {
+				blockMinima[level][block] = shallowest(blockMinima[level - 1][block],
+						blockMinima[level - 1][block + span]);
+			}
+		}
+	}
+
+	/**
+	 * Labels every cell with its distance to the ends of the edges outside the tree.
+	 *
+	 * @param nbExtraEdges The number of edges outside the tree.
+	 * @return True if the labels fit, false if there are too many hubs.
+	 */
+	private boolean buildHubLabels(int nbExtraEdges) {
+		if ((long) 2 * nbExtraEdges * nbCells > MAX_LABELS) {
+			return false;
+		}
+		int[] moves = new int[4];
+		int[] hubs = new int[2 * nbExtraEdges];
+		boolean[] isHub = new boolean[nbCells];
+		for (int cell = 0; cell < nbCells; cell++) {
+			int nbMoves = maze.getValidMoves(cell, moves);
+			for (int i = 0; i < nbMoves; i++) {
+				int next = moves[i];
+				if (next != parents[cell] && parents[next] != cell) {
+					if (!isHub[cell]) {
+						isHub[cell] = true;
+						hubs[nbHubs++] = cell;
+					}
+				}
+			}
+		}
+		hubLabels = new int[nbHubs * nbCells];
+		Arrays.fill(hubLabels, -1);
+		CellQueue queue = new CellQueue();
+		for (int hub = 0; hub < nbHubs; hub++) {
+			queue.clear();
+			hubLabels[hubs[hub] * nbHubs + hub] = 0;
+			queue.add(hubs[hub]);
+			while (!queue.isEmpty()) {
+				int cell = queue.poll();
+				int nbMoves = maze.getValidMoves(cell, moves);
+				for (int i = 0; i < nbMoves; i++) {
+					int label = moves[i] * nbHubs + hub;
+					if (hubLabels[label] < 0) {
+						hubLabels[label] = hubLabels[cell * nbHubs + hub] + 1;
+						queue.add(moves[i]);
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the version of the walls of the maze the oracle was built with.
+	 *
+	 * @return The version of the walls.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Checks if the oracle gives exact distances. It does not when the maze is not connected or has
+	 * too many walls removed for its hub labels to fit.
+	 *
+	 * @return True if the oracle can be used, false otherwise.
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+	/**
+	 * Gets the number of hubs, the ends of the edges outside the spanning tree.
+	 *
+	 * @return The number of hubs, 0 for a perfect maze.
+	 */
+	public int getNbHubs() {
+		return nbHubs;
+	}
+
+	/**
+	 * Gets the distance between two cells.
+	 *
+	 * @param a The id of the first cell.
+	 * @param b The id of the second cell.
+	 * @return The number of steps of a shortest path between the cells.
+	 */
+	public int getDistance(int a, int b) {
+		int distance = depths[a] + depths[b] - 2 * depths[lowestCommonAncestor(a, b)];
+		for (int hub = 0; hub < nbHubs; hub++) {
+			distance = Math.min(distance, hubLabels[a * nbHubs + hub] + hubLabels[b * nbHubs + hub]);
+		}
+		return distance;
+	}
+
+	/**
+	 * Gets the next cell on a shortest path between two cells.
+	 *
+	 * @param from The id of the cell to move from.
+	 * @param to   The id of the cell to move to.
+	 * @return The id of the next cell, or the start cell if both cells are the same.
+	 */
+	public int nextStep(int from, int to) {
+		if (from == to) {
+			return from;
+		}
+		// No buffer is shared, so that threads can query the oracle at once
+		int distance = nbHubs == 0 ? 0 : getDistance(from, to);
+		for (int side : SIDES) {
+			int next = getNeighbor(from, side);
+			if (next < 0) {
+				continue;
+			}
+			if (nbHubs == 0) {
+				// In a tree, go down to the child whose subtree holds the target
+				if (parents[next] == from && isInSubtree(to, next)) {
+					return next;
+				}
+			} else if (getDistance(next, to) == distance - 1) {
+				return next;
+			}
+		}
+		// In a tree, the target is not below, so go up
+		return nbHubs == 0 ? parents[from] : from;
+	}
+
+	/**
+	 * Gets the memory used by the tables of the oracle.
+	 *
+	 * @return The size of the tables in bytes.
+	 */
+	public long getMemoryBytes() {
+		long ints = 5L * nbCells + (eulerTour == null ? 0 : eulerTour.length)
+				+ (hubLabels == null ? 0 : hubLabels.length);
+		if (blockMinima != null) {
+			for (int[] level : blockMinima) {
+				ints += level.length;
+			}
+		}
+		return 4 * ints;
+	}
+
+	/**
+	 * Gets the cell reached by leaving a cell through one of its sides.
+	 *
+	 * @param cell The id of the cell.
+	 * @param side The side of the cell (LEFT, BOTTOM, RIGHT, or TOP).
+	 * @return The id of the adjacent cell, or -1 if there is a wall or the side is on the border of the maze.
+	 */
+	private int getNeighbor(int cell, int side) {
+		int x = cell % maze.getWidth();
+		int y = cell / maze.getWidth();
+		if ((maze.getCells().get(cell) & side) == 0 || (side == Maze.LEFT && x == 0)
+				|| (side == Maze.RIGHT && x == maze.getWidth() - 1) || (side == Maze.TOP && y == 0)
+				|| (side == Maze.BOTTOM && y == maze.getHeight() - 1)) {
+			return -1;
+		}
+		return maze.getNeighbor(cell, side);
+	}
+
+	/**
+	 * Checks if a cell is in the subtree of another one.
+	 *
+	 * @param cell The id of the cell.
+	 * @param root The id of the root of the subtree.
+	 * @return True if the cell is the root or one of its descendants, false otherwise.
+	 */
+	private boolean isInSubtree(int cell, int root) {
+		return firstOccurrences[root] <= firstOccurrences[cell] && firstOccurrences[cell] < subtreeEnds[root];
+	}
+
+	/**
+	 * Finds the lowest common ancestor of two cells in the spanning tree.
+	 *
+	 * @param a The id of the first cell.
+	 * @param b The id of the second cell.
+	 * @return The id of the ancestor.
+	 */
+	private int lowestCommonAncestor(int a, int b) {
+		int left = Math.min(firstOccurrences[a], firstOccurrences[b]);
+		int right = Math.max(firstOccurrences[a], firstOccurrences[b]);
+		int leftBlock = left / BLOCK_SIZE;
+		int rightBlock = right / BLOCK_SIZE;
+		if (leftBlock == rightBlock) {
+			return eulerTour[scanMinimum(left, right)];
+		}
+		int minimum = shallowest(scanMinimum(left, leftBlock * BLOCK_SIZE + BLOCK_SIZE - 1),
+				scanMinimum(rightBlock * BLOCK_SIZE, right));
+		if (rightBlock - leftBlock > 1) {
+			int level = 31 - Integer.numberOfLeadingZeros(rightBlock - leftBlock - 1);
+			minimum = shallowest(minimum, shallowest(blockMinima[level][leftBlock + 1],
+					blockMinima[level][rightBlock - (1 << level)]));
+		}
+		return eulerTour[minimum];
+	}
+
+	/**
+	 * Finds the shallowest cell of a range of the Euler tour by scanning it.
+	 *
+	 * @param from The first position of the range.
+	 * @param to   The last position of the range.
+	 * @return The position of the shallowest cell.
+	 */
+	private int scanMinimum(int from, int to) {
+		int minimum = from;
+		for (int i = from + 1; i <= to; i++) {
+			if (depths[eulerTour[i]] < depths[eulerTour[minimum]]) {
+				minimum = i;
+			}
+		}
+		return minimum;
+	}
+
+	/**
+	 * Chooses the shallower of two positions of the Euler tour.
+	 *
+	 * @param i The first position.
+	 * @param j The second position.
+	 * @return The position of the shallower cell.
+	 */
+	private int shallowest(int i, int j) {
+		return depths[eulerTour[i]] <= depths[eulerTour[j]] ? i : j;
+	}
+}
@@ -0,0 +1,116 @@
+import java.util.SplittableRandom;
+
+/**
+ * This class generates mazes with Eller's algorithm, which carves the maze one row at a time
+ * and only keeps track of the sets of the cells of the current row (model class).
+ * The sets are stored as a union-find structure over the columns, rebuilt for each row,
+ * so each row takes linear time. The rows can be streamed to a MazeRowSink as soon as they
+ * are complete, in which case the memory used does not depend on the height of the maze.
+ */
+public class EllerGenerator implements MazeGenerator {
+
+	/**
+	 * Carves a perfect maze into the given grid using Eller's algorithm.
+	 *
+	 * @param maze The cells of the maze.
+	 * @param random The source of randomness of the generation.
+	 */
+	@Override
+	public void generate(CellGrid maze, SplittableRandom random) {
+		stream(maze.getWidth(), maze.getHeight(), random, maze::setRow);
+	}
+
+	/**
+	 * Generates a perfect maze of the specified dimensions using Eller's algorithm and gives
+	 * its rows to a sink from top to bottom. Only one row of cells and of sets is kept in memory.
+	 *
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 * @param random The source of randomness of the generation.
+	 * @param sink The consumer of the rows.
+	 */
+	public void stream(int width, int height, SplittableRandom random, MazeRowSink sink) {
+		assert width > 0 && height > 0;
+		int[] row = new int[width];
+		int[] parents = new int[width];
+		int[] nextParents = new int[width];
+		int[] remaining = new int[width];
+		boolean[] hasPassageDown = new boolean[width];
+		int[] firstColumns = new int[width];
+		for (int x = 0; x < width; x++) {
+			parents[x] = x;
+		}
+
+		for (int y = 0; y < height; y++) {
+			boolean lastRow = y == height - 1;
+			// Randomly join adjacent cells of different sets, all of them in the last row
+			for (int x = 0; x < width - 1; x++) {
+				int root = find(parents, x);
+				int nextRoot = find(parents, x + 1);
+				if (root != nextRoot && (lastRow || random.nextBoolean())) {
+					row[x] |= Maze.RIGHT;
+					row[x + 1] |= Maze.LEFT;
+					parents[nextRoot] = root;
+				}
+			}
+			if (lastRow) {
+				sink.acceptRow(y, row);
+				break;
+			}
+
+			// Randomly open passages down, at least one per set
+			for (int x = 0; x < width; x++) {
+				remaining[x] = 0;
+				hasPassageDown[x] = false;
+			}
+			for (int x = 0; x < width; x++) {
+				remaining[find(parents, x)]++;
+			}
+			for (int x = 0; x < width; x++) {
+				int root = find(parents, x);
+				remaining[root]--;
+				if (random.nextBoolean() || (remaining[root] == 0 && !hasPassageDown[root])) {
+					row[x] |= Maze.BOTTOM;
+					hasPassageDown[root] = true;
+				}
+			}
+			sink.acceptRow(y, row);
+
+			// The cells below a passage keep their set, the other ones start a new set
+			for (int x = 0; x < width; x++) {
+				firstColumns[x] = -1;
+			}
+			for (int x = 0; x < width; x++) {
+				if ((row[x] & Maze.BOTTOM) != 0) {
+					int root = find(parents, x);
+					if (firstColumns[root] < 0) {
+						firstColumns[root] = x;
+					}
+					nextParents[x] = firstColumns[root];
+					row[x] = Maze.TOP;
+				} else {
+					nextParents[x] = x;
+					row[x] = 0;
+				}
+			}
+			int[] tmp = parents;
+			parents = nextParents;
+			nextParents = tmp;
+		}
+	}
+
+	/**
+	 * Finds the representative column of the set of a cell in the current row, halving the path on the way.
+	 *
+	 * @param parents The parent of each column in the union-find structure.
+	 * @param x The column of the cell.
+	 * @return The representative column.
+	 */
+	private static int find(int[] parents, int x) {
+		while (parents[x] != x) {
+			parents[x] = parents[parents[x]];
+			x = parents[x];
+		}
+		return x;
+	}
+}
@@ -0,0 +1,318 @@
+import java.util.Arrays;
+
+/**
+ * The EntityIndex class records which entities (gems, police, key, and door) occupy each cell of a maze,
+ * keyed by cell id (model class). Only the occupied cells are stored, in hash maps sized to the number of
+ * entities rather than to the maze, so pickup and capture checks take constant time however many
+ * entities there are. The index is updated incrementally as the entities move or get collected.
+ */
+public class EntityIndex {
+	/**
+	 * The index of the uncollected gem at each cell holding one.
+	 */
+	private IntIntMap gemAt;
+
+	/**
+	 * The number of policemen at each cell holding at least one.
+	 */
+	private IntIntMap policeAt;
+
+	/**
+	 * The number of gems not collected yet.
+	 */
+	private int nbGemsLeft = 0;
+
+	/**
+	 * The id of the cell holding the key, -1 if there is no key.
+	 */
+	private int keyCell = -1;
+
+	/**
+	 * The id of the cell holding the door, -1 if there is no door.
+	 */
+	private int doorCell = -1;
+
+	/**
+	 * Creates an empty index.
+	 *
+	 * @param nbGems   The number of gems that will be added.
+	 * @param nbPolice The number of policemen that will be added.
+	 */
+	public EntityIndex(int nbGems, int nbPolice) {
+		gemAt = new IntIntMap(nbGems);
+		policeAt = new IntIntMap(nbPolice);
+	}
+
+	/**
+	 * Adds a gem to a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @param gem  The index of the gem.
+	 */
+	public void addGem(int cell, int gem) {
+		if (gemAt.put(cell, gem) < 0) {
+			nbGemsLeft++;
+		}
+	}
+
+	/**
+	 * Removes the gem of a cell, if any.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The index of the removed gem, or -1 if the cell holds no gem.
+	 */
+	public int removeGem(int cell) {
+		int gem = gemAt.remove(cell);
+		if (gem >= 0) {
+			nbGemsLeft--;
+		}
+		return gem;
+	}
+
+	/**
+	 * Gets the number of gems not collected yet.
+	 *
+	 * @return The number of gems left.
+	 */
+	public int getNbGemsLeft() {
+		return nbGemsLeft;
+	}
+
+	/**
+	 * Adds a policeman to a cell.
+	 *
+	 * @param cell The id of the cell.
+	 */
+	public synchronized void addPolice(int cell) {
+		policeAt.add(cell, 1);
+	}
+
+	/**
+	 * Moves a policeman from a cell to another.
+	 *
+	 * @param from The id of the cell the policeman leaves.
+	 * @param to   The id of the cell the policeman enters.
+	 */
+	public synchronized void movePolice(int from, int to) {
+		if (from != to) {
+			policeAt.add(from, -1);
+			policeAt.add(to, 1);
+		}
+	}
+
+	/**
+	 * Checks if at least one policeman is at a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return True if a policeman is at the cell, false otherwise.
+	 */
+	public synchronized boolean hasPolice(int cell) {
+		return policeAt.get(cell) > 0;
+	}
+
+	/**
+	 * Sets the cell holding the key.
+	 *
+	 * @param cell The id of the cell.
+	 */
+	public void setKeyCell(int cell) {
+		keyCell = cell;
+	}
+
+	/**
+	 * Checks if the key is at a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return True if the key is at the cell, false otherwise.
+	 */
+	public boolean isKeyAt(int cell) {
+		return cell == keyCell;
+	}
+
+	/**
+	 * Sets the cell holding the door.
+	 *
+	 * @param cell The id of the cell.
+	 */
+	public void setDoorCell(int cell) {
+		doorCell = cell;
+	}
+
+	/**
+	 * Checks if the door is at a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return True if the door is at the cell, false otherwise.
+	 */
+	public boolean isDoorAt(int cell) {
+		return cell == doorCell;
+	}
+}
+
+/**
+ * A hash map from non-negative int keys to non-negative int values, using open addressing with linear
+ * probing so that no object is allocated per entry. Removals shift the following entries back instead of
+ * leaving tombstones, so lookups stay short however many times the entities move.
+ */
+class IntIntMap {
+	/**
+	 * The key marking an empty slot.
+	 */
+	private static final int EMPTY = -1;
+
+	/**
+	 * The keys of the slots, EMPTY for the free ones.
+	 */
+	private int[] keys;
+
+	/**
+	 * The values of the slots.
+	 */
+	private int[] values;
+
+	/**
+	 * The mask turning a hash into a slot, the number of slots being a power of two.
+	 */
+	private int mask;
+
+	/**
+	 * The number of entries in the map.
+	 */
+	private int size = 0;
+
+	/**
+	 * Creates an empty map.
+	 *
+	 * @param expectedSize The maximum number of entries the map will hold, kept under half the slots.
+	 */
+	IntIntMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+		keys = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Gets the slot where a key starts to be probed for.
+	 *
+	 * @param key The key.
+	 * @return The home slot of the key.
+	 */
+	private int home(int key) {
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	/**
+	 * Gets the slot of a key.
+	 *
+	 * @param key The key.
+	 * @return The slot holding the key, or the free slot ending its probe sequence.
+	 */
+	private int slot(int key) {
+		int i = home(key);
+		while (keys[i] != EMPTY && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	/**
+	 * Gets the value of a key.
+	 *
+	 * @param key The key.
+	 * @return The value of the key, or -1 if the key is absent.
+	 */
+	int get(int key) {
+		int i = slot(key);
+		return keys[i] == EMPTY ? -1 : values[i];
+	}
+
+	/**
+	 * Sets the value of a key.
+	 *
+	 * @param key   The key.
+	 * @param value The new value of the key.
+	 * @return The previous value of the key, or -1 if the key was absent.
+	 */
+	int put(int key, int value) {
+		int i = slot(key);
+		int previous = keys[i] == EMPTY ? -1 : values[i];
+		if (keys[i] == EMPTY) {
+			if ((size + 1) * 2 > keys.length) {
+				grow();
+				i = slot(key);
+			}
+			keys[i] = key;
+			size++;
+		}
+		values[i] = value;
+		return previous;
+	}
+
+	/**
+	 * Adds to the value of a key, a missing key counting as 0. The key is removed when its value reaches 0.
+	 *
+	 * @param key   The key.
+	 * @param delta The amount to add.
+	 */
+	void add(int key, int delta) {
+		int value = Math.max(0, get(key)) + delta;
+		if (value > 0) {
+			put(key, value);
+		} else {
+			remove(key);
+		}
+	}
+
+	/**
+	 * Removes a key.
+	 *
+	 * @param key The key.
+	 * @return The value of the removed key, or -1 if the key was absent.
+	 */
+	int remove(int key) {
+		int i = slot(key);
+		if (keys[i] == EMPTY) {
+			return -1;
+		}
+		int value = values[i];
+		// Shift back the following entries whose probe sequence went through the freed slot
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (keys[j] == EMPTY) {
+				break;
+			}
+			int h = home(keys[j]);
+			if (((j - h) & mask) >= ((j - i) & mask)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+		}
+		keys[i] = EMPTY;
+		size--;
+		return value;
+	}
+
+	/**
+	 * Doubles the number of slots and inserts the entries again.
+	 */
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new int[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int j = slot(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+}
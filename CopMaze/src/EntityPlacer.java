@@ -0,0 +1,149 @@
+import java.util.HashMap;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The EntityPlacer class draws distinct random cells of a maze to place entities such as gems,
+ * the key and the police (model class).
+ * It runs a partial Fisher-Yates shuffle over the cell ids in which only the displaced positions
+ * are stored, so drawing k cells takes O(k) time and memory whatever the size of the maze.
+ * A drawn cell is never drawn again.
+ */
+public class EntityPlacer {
+	/**
+	 * The number of cells of the maze.
+	 */
+	private int nbCells;
+
+	/**
+	 * The random number generator used to draw the cells.
+	 */
+	private SplittableRandom random;
+
+	/**
+	 * The cells at the positions of the shuffle that differ from the identity.
+	 */
+	private HashMap<Integer, Integer> cellsAt = new HashMap<Integer, Integer>();
+
+	/**
+	 * The positions in the shuffle of the cells that differ from the identity.
+	 */
+	private HashMap<Integer, Integer> positionsOf = new HashMap<Integer, Integer>();
+
+	/**
+	 * The number of cells already drawn, which are at the positions [0, nbDrawn).
+	 */
+	private int nbDrawn = 0;
+
+	/**
+	 * Creates a placer over the cells 0 to nbCells - 1.
+	 *
+	 * @param nbCells The number of cells of the maze.
+	 * @param random The random number generator used to draw the cells.
+	 */
+	public EntityPlacer(int nbCells, SplittableRandom random) {
+		this.nbCells = nbCells;
+		this.random = random;
+	}
+
+	/**
+	 * Gets the number of cells that have not been drawn yet.
+	 *
+	 * @return The number of free cells.
+	 */
+	public int getNbFreeCells() {
+		return nbCells - nbDrawn;
+	}
+
+	/**
+	 * Draws distinct random free cells that are not in the excluded cells.
+	 * A draw that hits an excluded cell sets it aside until the end of the call, so at most
+	 * count + excluded.size() draws are made.
+	 *
+	 * @param count The number of cells to draw.
+	 * @param excluded The cells that must not be drawn by this call, they stay free for later calls.
+	 * @return The ids of the drawn cells.
+	 * @throws IllegalStateException If there are not enough free cells outside the excluded cells.
+	 */
+	public int[] place(int count, Set<Integer> excluded) {
+		int nbAvailable = nbCells - nbDrawn;
+		for (int cell : excluded) {
+			if (cell >= 0 && cell < nbCells && positionOf(cell) >= nbDrawn) {
+				nbAvailable--;
+			}
+		}
+		if (nbAvailable < count) {
+			throw new IllegalStateException(
+					"Cannot place " + count + " entities: only " + nbAvailable + " free cells satisfy the constraints");
+		}
+
+		int[] cells = new int[count];
+		int nbPlaced = 0;
+		// The excluded cells drawn are moved to the positions [limit, nbCells)
+		int limit = nbCells;
+		while (nbPlaced < count) {
+			int position = nbDrawn + random.nextInt(limit - nbDrawn);
+			int cell = cellAt(position);
+			if (excluded.contains(cell)) {
+				limit--;
+				swap(position, limit);
+			} else {
+				swap(position, nbDrawn);
+				nbDrawn++;
+				cells[nbPlaced++] = cell;
+			}
+		}
+		return cells;
+	}
+
+	/**
+	 * Gets the cell at a position of the shuffle.
+	 *
+	 * @param position The position in the shuffle.
+	 * @return The id of the cell.
+	 */
+	private int cellAt(int position) {
+		Integer cell = cellsAt.get(position);
+		return cell == null ? position : cell;
+	}
+
+	/**
+	 * Gets the position of a cell in the shuffle.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The position of the cell.
+	 */
+	private int positionOf(int cell) {
+		Integer position = positionsOf.get(cell);
+		return position == null ? cell : position;
+	}
+
+	/**
+	 * Swaps the cells at two positions of the shuffle.
+	 *
+	 * @param position The first position.
+	 * @param otherPosition The second position.
+	 */
+	private void swap(int position, int otherPosition) {
+		int cell = cellAt(position);
+		int otherCell = cellAt(otherPosition);
+		setCellAt(position, otherCell);
+		setCellAt(otherPosition, cell);
+	}
+
+	/**
+	 * Puts a cell at a position of the shuffle, only storing it if it differs from the identity.
+	 *
+	 * @param position The position in the shuffle.
+	 * @param cell The id of the cell.
+	 */
+	private void setCellAt(int position, int cell) {
+		if (position == cell) {
+			cellsAt.remove(position);
+			positionsOf.remove(cell);
+		} else {
+			cellsAt.put(position, cell);
+			positionsOf.put(cell, position);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * The FieldPathFinder class answers path queries from a direction field towards their target (model class).
+ * The field is filled by a full breadth-first search from the target and kept until a query asks for another
+ * target, so many queries towards the same cell, like all the police chasing the player during a tick,
+ * share a single search and then take constant time per step.
+ */
+public class FieldPathFinder implements PathFinder {
+	/**
+	 * The maze to search.
+	 */
+	private Maze maze;
+
+	/**
+	 * The directions towards the target of the last query, null before the first query.
+	 */
+	private DirectionField field;
+
+	/**
+	 * The version of the walls of the maze the field was computed with.
+	 */
+	private long version;
+
+	/**
+	 * The number of cells expanded by all the searches.
+	 */
+	private long nbExpanded = 0;
+
+	/**
+	 * Creates a direction field path finder for a maze.
+	 *
+	 * @param maze The maze to search.
+	 */
+	public FieldPathFinder(Maze maze) {
+		this.maze = maze;
+	}
+
+	@Override
+	public synchronized int[] findPath(int from, int to) {
+		DirectionField directions = getField(to);
+		if (from == to || !directions.isReached(from)) {
+			return new int[0];
+		}
+		int length = 0;
+		for (int cell = from; cell != to; cell = directions.nextStep(cell)) {
+			length++;
+		}
+		int[] path = new int[length];
+		int i = 0;
+		for (int cell = directions.nextStep(from); i < length; cell = directions.nextStep(cell)) {
+			path[i++] = cell;
+		}
+		return path;
+	}
+
+	@Override
+	public synchronized int nextStep(int from, int to) {
+		return getField(to).nextStep(from);
+	}
+
+	@Override
+	public synchronized long getNbExpanded() {
+		return nbExpanded;
+	}
+
+	@Override
+	public synchronized long getMemoryBytes() {
+		return field == null ? 0 : field.getMemoryBytes();
+	}
+
+	/**
+	 * Gets the direction field towards a target, computing it again if the last query had another target
+	 * or if the walls changed since.
+	 *
+	 * @param to The id of the target cell.
+	 * @return The direction field whose source is the target.
+	 */
+	private DirectionField getField(int to) {
+		if (field == null) {
+			field = new DirectionField(maze.getWidth() * maze.getHeight(), maze.getWidth());
+		}
+		if (field.getSource() != to || version != maze.getVersion()) {
+			version = maze.getVersion();
+			nbExpanded += field.compute(maze, to);
+		}
+		return field;
+	}
+}
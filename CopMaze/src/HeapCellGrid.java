@@ -0,0 +1,186 @@
+/**
+ * The HeapCellGrid class stores the cells of a maze on the heap, in a single flat array of bytes,
+ * row by row, so the cells of a row are contiguous in memory (model class).
+ */
+public class HeapCellGrid implements CellGrid {
+	/**
+	 * The width of the grid (number of columns).
+	 */
+	private final int width;
+
+	/**
+	 * The height of the grid (number of rows).
+	 */
+	private final int height;
+
+	/**
+	 * The cells of the grid, row by row.
+	 */
+	private final byte[] cells;
+
+	/**
+	 * Creates a grid whose cells all have their four walls.
+	 *
+	 * @param width The width of the grid (number of columns).
+	 * @param height The height of the grid (number of rows).
+	 */
+	public HeapCellGrid(int width, int height) {
+		assert width > 0 && height > 0;
+		this.width = width;
+		this.height = height;
+		this.cells = new byte[Math.multiplyExact(width, height)];
+	}
+
+	/**
+	 * Gets the width of the grid.
+	 *
+	 * @return The number of columns.
+	 */
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the height of the grid.
+	 *
+	 * @return The number of rows.
+	 */
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Gets the number of cells of the grid.
+	 *
+	 * @return The width times the height.
+	 */
+	@Override
+	public int size() {
+		return cells.length;
+	}
+
+	/**
+	 * Gets the id of a cell.
+	 *
+	 * @param x The x-coordinate of the cell.
+	 * @param y The y-coordinate of the cell.
+	 * @return The id of the cell, x + y * width.
+	 */
+	@Override
+	public int index(int x, int y) {
+		return x + y * width;
+	}
+
+	/**
+	 * Gets the bits of a cell.
+	 *
+	 * @param x The x-coordinate of the cell.
+	 * @param y The y-coordinate of the cell.
+	 * @return The bits of the cell.
+	 */
+	@Override
+	public int get(int x, int y) {
+		return cells[x + y * width] & 0xFF;
+	}
+
+	/**
+	 * Gets the bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The bits of the cell.
+	 */
+	@Override
+	public int get(int cell) {
+		return cells[cell] & 0xFF;
+	}
+
+	/**
+	 * Replaces the bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @param bits The new bits of the cell.
+	 */
+	@Override
+	public void set(int cell, int bits) {
+		cells[cell] = (byte) bits;
+	}
+
+	/**
+	 * Sets some bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @param bits The bits to set.
+	 */
+	@Override
+	public void setBits(int cell, int bits) {
+		cells[cell] |= bits;
+	}
+
+	/**
+	 * Clears some bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @param bits The bits to clear.
+	 */
+	@Override
+	public void clearBits(int cell, int bits) {
+		cells[cell] &= ~bits;
+	}
+
+	/**
+	 * Opens the passage between a cell and its neighbor by removing the wall on both sides.
+	 *
+	 * @param x The x-coordinate of the cell.
+	 * @param y The y-coordinate of the cell.
+	 * @param direction The wall to remove: LEFT, BOTTOM, RIGHT, or TOP.
+	 */
+	@Override
+	public void openPassage(int x, int y, int direction) {
+		int cell = x + y * width;
+		cells[cell] |= direction;
+		if (direction == Maze.LEFT) {
+			cells[cell - 1] |= Maze.RIGHT;
+		} else if (direction == Maze.RIGHT) {
+			cells[cell + 1] |= Maze.LEFT;
+		} else if (direction == Maze.TOP) {
+			cells[cell - width] |= Maze.BOTTOM;
+		} else { // Bottom
+			cells[cell + width] |= Maze.TOP;
+		}
+	}
+
+	/**
+	 * Copies a smaller grid into this one, row by row.
+	 *
+	 * @param tile The grid to copy.
+	 * @param x0 The x-coordinate where the left column of the tile goes.
+	 * @param y0 The y-coordinate where the top row of the tile goes.
+	 */
+	@Override
+	public void copy(CellGrid tile, int x0, int y0) {
+		if (!(tile instanceof HeapCellGrid)) {
+			CellGrid.super.copy(tile, x0, y0);
+			return;
+		}
+		HeapCellGrid heapTile = (HeapCellGrid) tile;
+		for (int j = 0; j < heapTile.height; j++) {
+			System.arraycopy(heapTile.cells, j * heapTile.width, cells, x0 + (y0 + j) * width, heapTile.width);
+		}
+	}
+
+	/**
+	 * Replaces the bits of a row of cells.
+	 *
+	 * @param y The y-coordinate of the row.
+	 * @param row The new bits of the cells of the row, indexed by x.
+	 */
+	@Override
+	public void setRow(int y, int[] row) {
+		int offset = y * width;
+		for (int x = 0; x < width; x++) {
+			cells[offset + x] = (byte) row[x];
+		}
+	}
+}
@@ -0,0 +1,25 @@
+/**
+ * The Heuristic interface estimates the length of the path between two cells of a maze for informed
+ * searches (model class). Estimates must never exceed the true length, so that the paths found are
+ * shortest.
+ */
+public interface Heuristic {
+	/**
+	 * The Manhattan distance, exact when no wall stands in the way.
+	 */
+	Heuristic MANHATTAN = (dx, dy) -> dx + dy;
+
+	/**
+	 * No estimate, which turns A* into a uniform-cost search.
+	 */
+	Heuristic NONE = (dx, dy) -> 0;
+
+	/**
+	 * Estimates the length of the path between two cells.
+	 *
+	 * @param dx The absolute difference between the x-coordinates of the cells.
+	 * @param dy The absolute difference between the y-coordinates of the cells.
+	 * @return The estimated number of steps, at most the true one.
+	 */
+	int estimate(int dx, int dy);
+}
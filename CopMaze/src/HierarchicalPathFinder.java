@@ -0,0 +1,664 @@
+import java.util.Arrays;
+
+/**
+ * The HierarchicalPathFinder class finds shortest paths with hierarchical pathfinding, HPA* (model class).
+ * The maze is split into square clusters, and every cell with an open side to another cluster is a node of an
+ * abstract graph. Two nodes of a cluster are linked by the length of the shortest path between them inside the
+ * cluster, precomputed with one breadth-first search per node, and the two cells of a passage between clusters
+ * are linked by a single step. A link whose path inside the cluster goes through a third node is left out,
+ * since the links to and from that node give the same length, which keeps the graph sparse. A query links the
+ * start and the target to the nodes of their cluster, runs Dijkstra's algorithm over the abstract graph only,
+ * and refines the route found cluster by cluster.
+ *
+ * Any path crosses from cluster to cluster through nodes, so the abstract graph keeps the shortest paths
+ * exact. When the walls of the maze change, only the clusters holding the cells the maze lists as changed are
+ * built again; a wall between two clusters changes a cell on each side, so both are built again.
+ */
+public class HierarchicalPathFinder implements PathFinder {
+	/**
+	 * The default size of the side of a cluster, in cells.
+	 */
+	static final int DEFAULT_CLUSTER_SIZE = 32;
+
+	/**
+	 * The distance of the nodes that cannot be reached.
+	 */
+	private static final int UNREACHABLE = -1;
+
+	/**
+	 * The maze to search.
+	 */
+	private Maze maze;
+
+	/**
+	 * The size of the side of a cluster, in cells.
+	 */
+	private int clusterSize;
+
+	/**
+	 * The number of clusters along the width of the maze.
+	 */
+	private int nbClustersX;
+
+	/**
+	 * The version of the walls of the maze the clusters were last checked against.
+	 */
+	private long version;
+
+	/**
+	 * The node cells of each cluster, in increasing order, null before the first query.
+	 */
+	private int[][] nodeCells;
+
+	/**
+	 * The start of the links of each node of each cluster in its linkTargets, with one more entry for the end.
+	 */
+	private int[][] linkStart;
+
+	/**
+	 * The node each link of each cluster leads to, by index among the nodes of the cluster.
+	 */
+	private int[][] linkTargets;
+
+	/**
+	 * The length of each link of each cluster, the distance inside the cluster between its two nodes.
+	 */
+	private int[][] linkLengths;
+
+	/**
+	 * The id of the first node of each cluster in the abstract graph, with one more entry for the end.
+	 */
+	private int[] nodeStart;
+
+	/**
+	 * The cluster of each node of the abstract graph.
+	 */
+	private int[] nodeClusters;
+
+	/**
+	 * The number of clusters built since the path finder was created.
+	 */
+	private long nbClusterBuilds = 0;
+
+	/**
+	 * The number of nodes and cells expanded by all the searches.
+	 */
+	private long nbExpanded = 0;
+
+	/**
+	 * The epoch of the last search that reached each node.
+	 */
+	private int[] stamps = new int[0];
+
+	/**
+	 * The epoch of the current search.
+	 */
+	private int epoch = 0;
+
+	/**
+	 * The length of the shortest path found so far to each reached node.
+	 */
+	private int[] distances = new int[0];
+
+	/**
+	 * The node each reached node was reached from, -1 for the nodes reached from the start cell.
+	 */
+	private int[] previous = new int[0];
+
+	/**
+	 * The nodes waiting to be expanded.
+	 */
+	private CellHeap open = new CellHeap();
+
+	/**
+	 * The distances from the target to the nodes of its cluster during a query.
+	 */
+	private int[] targetDistances = new int[0];
+
+	/**
+	 * The distance of each cell of a cluster from the source of the last search inside it, by local index.
+	 */
+	private int[] localDistances;
+
+	/**
+	 * For each cell of a cluster, true if the path from the source of the last search inside the cluster goes
+	 * through another node before reaching it, by local index.
+	 */
+	private boolean[] localThroughNode;
+
+	/**
+	 * The index of each cell of the cluster being built among its nodes, -1 for the other cells, by local index.
+	 */
+	private int[] localNodes;
+
+	/**
+	 * The queue of the searches inside a cluster, by local index.
+	 */
+	private int[] localQueue;
+
+	/**
+	 * The x-coordinate of the first column of the cluster of the last search inside a cluster.
+	 */
+	private int localX0;
+
+	/**
+	 * The y-coordinate of the first row of the cluster of the last search inside a cluster.
+	 */
+	private int localY0;
+
+	/**
+	 * The width of the cluster of the last search inside a cluster.
+	 */
+	private int localWidth;
+
+	/**
+	 * The height of the cluster of the last search inside a cluster.
+	 */
+	private int localHeight;
+
+	/**
+	 * The buffer receiving the valid moves from a cell.
+	 */
+	private int[] moves = new int[4];
+
+	/**
+	 * The buffer receiving the path being refined.
+	 */
+	private int[] path = new int[64];
+
+	/**
+	 * The number of cells of the path being refined.
+	 */
+	private int pathLength;
+
+	/**
+	 * Creates a hierarchical path finder for a maze, with clusters of the default size.
+	 *
+	 * @param maze The maze to search.
+	 */
+	public HierarchicalPathFinder(Maze maze) {
+		this(maze, DEFAULT_CLUSTER_SIZE);
+	}
+
+	/**
+	 * Creates a hierarchical path finder for a maze.
+	 *
+	 * @param maze        The maze to search.
+	 * @param clusterSize The size of the side of a cluster, in cells.
+	 */
+	public HierarchicalPathFinder(Maze maze, int clusterSize) {
+		assert clusterSize > 0;
+		this.maze = maze;
+		this.clusterSize = clusterSize;
+		localDistances = new int[clusterSize * clusterSize];
+		localThroughNode = new boolean[clusterSize * clusterSize];
+		localNodes = new int[clusterSize * clusterSize];
+		localQueue = new int[clusterSize * clusterSize];
+	}
+
+	@Override
+	public synchronized int[] findPath(int from, int to) {
+		if (from == to) {
+			return new int[0];
+		}
+		refresh();
+		int startCluster = clusterOf(from);
+		int targetCluster = clusterOf(to);
+
+		// The target joins the nodes of its cluster, and the start too if it is in the same cluster
+		searchCluster(targetCluster, to, false);
+		int[] targetNodes = nodeCells[targetCluster];
+		if (targetDistances.length < targetNodes.length) {
+			targetDistances = new int[targetNodes.length];
+		}
+		for (int i = 0; i < targetNodes.length; i++) {
+			targetDistances[i] = localDistances[localIndex(targetCluster, targetNodes[i])];
+		}
+		int best = Integer.MAX_VALUE;
+		if (startCluster == targetCluster && localDistances[localIndex(startCluster, from)] != UNREACHABLE) {
+			best = localDistances[localIndex(startCluster, from)];
+		}
+
+		// The start joins the nodes of its cluster
+		resetSearch();
+		searchCluster(startCluster, from, false);
+		int[] startNodes = nodeCells[startCluster];
+		for (int i = 0; i < startNodes.length; i++) {
+			int distance = localDistances[localIndex(startCluster, startNodes[i])];
+			if (distance != UNREACHABLE) {
+				relax(nodeStart[startCluster] + i, distance, -1);
+			}
+		}
+
+		int bestNode = -1;
+		while (!open.isEmpty()) {
+			long entry = open.poll();
+			int node = CellHeap.cellOf(entry);
+			int distance = CellHeap.priorityOf(entry);
+			if (distance != distances[node]) { // A shorter path to the node was found since
+				continue;
+			}
+			if (distance >= best) {
+				break;
+			}
+			nbExpanded++;
+			int cluster = nodeClusters[node];
+			int local = node - nodeStart[cluster];
+			if (cluster == targetCluster && targetDistances[local] != UNREACHABLE
+					&& distance + targetDistances[local] < best) {
+				best = distance + targetDistances[local];
+				bestNode = node;
+			}
+			// To the other nodes of the cluster
+			int[] targets = linkTargets[cluster];
+			int[] lengths = linkLengths[cluster];
+			for (int i = linkStart[cluster][local]; i < linkStart[cluster][local + 1]; i++) {
+				relax(nodeStart[cluster] + targets[i], distance + lengths[i], node);
+			}
+			// To the nodes of the neighboring clusters through the passages of the cell
+			int cell = nodeCells[cluster][local];
+			int nbMoves = maze.getValidMoves(cell, moves);
+			for (int i = 0; i < nbMoves; i++) {
+				int other = clusterOf(moves[i]);
+				if (other != cluster) {
+					int j = Arrays.binarySearch(nodeCells[other], moves[i]);
+					relax(nodeStart[other] + j, distance + 1, node);
+				}
+			}
+		}
+		if (best == Integer.MAX_VALUE) {
+			return new int[0];
+		}
+		return refine(from, to, bestNode, startCluster, targetCluster);
+	}
+
+	@Override
+	public int nextStep(int from, int to) {
+		int[] steps = findPath(from, to);
+		return steps.length == 0 ? from : steps[0];
+	}
+
+	@Override
+	public synchronized long getNbExpanded() {
+		return nbExpanded;
+	}
+
+	@Override
+	public synchronized long getMemoryBytes() {
+		if (nodeCells == null) {
+			return 0;
+		}
+		long bytes = 4L * (nodeStart.length + nodeClusters.length);
+		for (int cluster = 0; cluster < nodeCells.length; cluster++) {
+			bytes += 4L * (nodeCells[cluster].length + linkStart[cluster].length + linkTargets[cluster].length
+					+ linkLengths[cluster].length);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Gets the number of clusters built since the path finder was created, all of them on the first query
+	 * and then only those whose walls changed.
+	 *
+	 * @return The number of cluster builds.
+	 */
+	public synchronized long getNbClusterBuilds() {
+		return nbClusterBuilds;
+	}
+
+	/**
+	 * Gets the number of nodes of the abstract graph.
+	 *
+	 * @return The number of nodes, 0 before the first query.
+	 */
+	public synchronized int getNbNodes() {
+		return nodeStart == null ? 0 : nodeStart[nodeStart.length - 1];
+	}
+
+	/**
+	 * Builds the clusters on the first query, and afterwards builds again the clusters whose walls changed
+	 * since the last query, or all of them when the maze no longer lists the cells changed since then.
+	 */
+	private void refresh() {
+		long current = maze.getVersion();
+		if (nodeCells != null && version == current) {
+			return;
+		}
+		int[] changedCells = nodeCells == null ? null : maze.getChangedCells(version);
+		version = current;
+		int width = maze.getWidth();
+		nbClustersX = (width + clusterSize - 1) / clusterSize;
+		int nbClusters = nbClustersX * ((maze.getHeight() + clusterSize - 1) / clusterSize);
+		boolean changed = false;
+		if (changedCells == null) { // The first query, or too many changes to list
+			nodeCells = new int[nbClusters][];
+			linkStart = new int[nbClusters][];
+			linkTargets = new int[nbClusters][];
+			linkLengths = new int[nbClusters][];
+			for (int cluster = 0; cluster < nbClusters; cluster++) {
+				buildCluster(cluster);
+			}
+			changed = true;
+		} else {
+			boolean[] built = new boolean[nbClusters];
+			for (int cell : changedCells) {
+				int cluster = clusterOf(cell);
+				if (!built[cluster]) {
+					buildCluster(cluster);
+					built[cluster] = true;
+					changed = true;
+				}
+			}
+		}
+		if (!changed) {
+			return;
+		}
+
+		// The nodes are numbered again, cluster after cluster
+		nodeStart = new int[nbClusters + 1];
+		for (int cluster = 0; cluster < nbClusters; cluster++) {
+			nodeStart[cluster + 1] = nodeStart[cluster] + nodeCells[cluster].length;
+		}
+		int nbNodes = nodeStart[nbClusters];
+		nodeClusters = new int[nbNodes];
+		for (int cluster = 0; cluster < nbClusters; cluster++) {
+			Arrays.fill(nodeClusters, nodeStart[cluster], nodeStart[cluster + 1], cluster);
+		}
+		if (stamps.length < nbNodes) {
+			stamps = new int[nbNodes];
+			distances = new int[nbNodes];
+			previous = new int[nbNodes];
+			epoch = 0;
+		}
+	}
+
+	/**
+	 * Finds the nodes of a cluster and the links between them inside the cluster.
+	 *
+	 * @param cluster The id of the cluster.
+	 */
+	private void buildCluster(int cluster) {
+		CellGrid cells = maze.getCells();
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+		int x0 = clusterX(cluster);
+		int y0 = clusterY(cluster);
+		int x1 = Math.min(width, x0 + clusterSize);
+		int y1 = Math.min(height, y0 + clusterSize);
+
+		// The cells on the border of the cluster with a passage out of it, in increasing order
+		int[] nodes = new int[4 * clusterSize];
+		int nbNodes = 0;
+		for (int y = y0; y < y1; y++) {
+			boolean borderRow = y == y0 || y == y1 - 1;
+			for (int x = x0; x < x1; x += borderRow || x == x1 - 1 ? 1 : x1 - 1 - x0) {
+				int bits = cells.get(cells.index(x, y));
+				if ((x == x0 && x > 0 && (bits & Maze.LEFT) != 0)
+						|| (x == x1 - 1 && x < width - 1 && (bits & Maze.RIGHT) != 0)
+						|| (y == y0 && y > 0 && (bits & Maze.TOP) != 0)
+						|| (y == y1 - 1 && y < height - 1 && (bits & Maze.BOTTOM) != 0)) {
+					nodes[nbNodes++] = cells.index(x, y);
+				}
+			}
+		}
+		nodes = Arrays.copyOf(nodes, nbNodes);
+		Arrays.fill(localNodes, -1);
+		for (int i = 0; i < nbNodes; i++) {
+			localNodes[localIndex(cluster, nodes[i])] = i;
+		}
+
+		int[] starts = new int[nbNodes + 1];
+		int[] targets = new int[nbNodes];
+		int[] lengths = new int[nbNodes];
+		int nbLinks = 0;
+		for (int i = 0; i < nbNodes; i++) {
+			searchCluster(cluster, nodes[i], true);
+			for (int j = 0; j < nbNodes; j++) {
+				int local = localIndex(cluster, nodes[j]);
+				if (j != i && localDistances[local] != UNREACHABLE && !localThroughNode[local]) {
+					if (nbLinks == targets.length) {
+						targets = Arrays.copyOf(targets, nbLinks * 2);
+						lengths = Arrays.copyOf(lengths, nbLinks * 2);
+					}
+					targets[nbLinks] = j;
+					lengths[nbLinks++] = localDistances[local];
+				}
+			}
+			starts[i + 1] = nbLinks;
+		}
+		nodeCells[cluster] = nodes;
+		linkStart[cluster] = starts;
+		linkTargets[cluster] = Arrays.copyOf(targets, nbLinks);
+		linkLengths[cluster] = Arrays.copyOf(lengths, nbLinks);
+		nbClusterBuilds++;
+	}
+
+	/**
+	 * Runs a breadth-first search from a cell that does not leave its cluster, filling localDistances. The
+	 * search works on the indices of the cells inside the cluster and reads their walls directly.
+	 *
+	 * @param cluster     The id of the cluster.
+	 * @param source      The id of the cell to start from, in the cluster.
+	 * @param throughNode True to fill localThroughNode too, from localNodes.
+	 */
+	private void searchCluster(int cluster, int source, boolean throughNode) {
+		CellGrid cells = maze.getCells();
+		int width = cells.getWidth();
+		localX0 = clusterX(cluster);
+		localY0 = clusterY(cluster);
+		localWidth = Math.min(width, localX0 + clusterSize) - localX0;
+		localHeight = Math.min(cells.getHeight(), localY0 + clusterSize) - localY0;
+		int origin = cells.index(localX0, localY0);
+		Arrays.fill(localDistances, UNREACHABLE);
+		int start = localIndex(cluster, source);
+		localDistances[start] = 0;
+		localThroughNode[start] = false;
+		localQueue[0] = start;
+		int head = 0;
+		int tail = 1;
+		while (head < tail) {
+			int local = localQueue[head++];
+			int x = local % clusterSize;
+			int y = local / clusterSize;
+			int bits = cells.get(origin + y * width + x);
+			int distance = localDistances[local] + 1;
+			boolean through = throughNode && (localThroughNode[local] || (local != start && localNodes[local] >= 0));
+			for (int side = Maze.LEFT; side <= Maze.TOP; side <<= 1) {
+				int next = localNeighbor(local, x, y, bits, side);
+				if (next >= 0 && localDistances[next] == UNREACHABLE) {
+					localDistances[next] = distance;
+					localThroughNode[next] = through;
+					localQueue[tail++] = next;
+				}
+			}
+		}
+		nbExpanded += tail;
+	}
+
+	/**
+	 * Gets the neighbor of a cell on one side inside the cluster of the last search inside a cluster.
+	 *
+	 * @param local The local index of the cell.
+	 * @param x     The column of the cell inside the cluster.
+	 * @param y     The row of the cell inside the cluster.
+	 * @param bits  The bits of the cell.
+	 * @param side  LEFT, BOTTOM, RIGHT, or TOP.
+	 * @return The local index of the neighbor, or -1 if the side is a wall or leaves the cluster.
+	 */
+	private int localNeighbor(int local, int x, int y, int bits, int side) {
+		if ((bits & side) == 0) {
+			return -1;
+		} else if (side == Maze.LEFT) {
+			return x > 0 ? local - 1 : -1;
+		} else if (side == Maze.BOTTOM) {
+			return y < localHeight - 1 ? local + clusterSize : -1;
+		} else if (side == Maze.RIGHT) {
+			return x < localWidth - 1 ? local + 1 : -1;
+		} else {
+			return y > 0 ? local - clusterSize : -1;
+		}
+	}
+
+	/**
+	 * Expands the route found over the abstract graph back to cells.
+	 *
+	 * @param from          The id of the start cell.
+	 * @param to            The id of the target cell.
+	 * @param lastNode      The last node of the route, -1 if the path stays inside the cluster of the start.
+	 * @param startCluster  The cluster of the start cell.
+	 * @param targetCluster The cluster of the target cell.
+	 * @return The ids of the cells of the path after the start cell, ending with the target cell.
+	 */
+	private int[] refine(int from, int to, int lastNode, int startCluster, int targetCluster) {
+		pathLength = 0;
+		if (lastNode < 0) {
+			appendInside(startCluster, from, to);
+			return Arrays.copyOf(path, pathLength);
+		}
+		int nbRouteNodes = 0;
+		for (int node = lastNode; node >= 0; node = previous[node]) {
+			nbRouteNodes++;
+		}
+		int[] route = new int[nbRouteNodes];
+		for (int node = lastNode, i = nbRouteNodes - 1; node >= 0; node = previous[node], i--) {
+			route[i] = node;
+		}
+
+		appendInside(startCluster, from, cellOf(route[0]));
+		for (int i = 1; i < route.length; i++) {
+			int cluster = nodeClusters[route[i]];
+			if (cluster == nodeClusters[route[i - 1]]) {
+				appendInside(cluster, cellOf(route[i - 1]), cellOf(route[i]));
+			} else { // Through the passage between the clusters
+				append(cellOf(route[i]));
+			}
+		}
+		appendInside(targetCluster, cellOf(lastNode), to);
+		return Arrays.copyOf(path, pathLength);
+	}
+
+	/**
+	 * Appends a shortest path between two cells of a cluster that does not leave it.
+	 *
+	 * @param cluster The id of the cluster.
+	 * @param from    The id of the cell to start from, not appended.
+	 * @param to      The id of the cell to reach, appended last.
+	 */
+	private void appendInside(int cluster, int from, int to) {
+		if (from == to) {
+			return;
+		}
+		// The search runs from the end, so each step goes down the distances
+		searchCluster(cluster, to, false);
+		CellGrid cells = maze.getCells();
+		int local = localIndex(cluster, from);
+		int end = localIndex(cluster, to);
+		while (local != end) {
+			int x = local % clusterSize;
+			int y = local / clusterSize;
+			int bits = cells.get(cells.index(localX0 + x, localY0 + y));
+			for (int side = Maze.LEFT; side <= Maze.TOP; side <<= 1) {
+				int next = localNeighbor(local, x, y, bits, side);
+				if (next >= 0 && localDistances[next] == localDistances[local] - 1) {
+					local = next;
+					break;
+				}
+			}
+			append(cells.index(localX0 + local % clusterSize, localY0 + local / clusterSize));
+		}
+	}
+
+	/**
+	 * Appends a cell to the path being refined.
+	 *
+	 * @param cell The id of the cell.
+	 */
+	private void append(int cell) {
+		if (pathLength == path.length) {
+			path = Arrays.copyOf(path, pathLength * 2);
+		}
+		path[pathLength++] = cell;
+	}
+
+	/**
+	 * Starts a new search over the abstract graph, which marks all the nodes as unreached in O(1).
+	 */
+	private void resetSearch() {
+		epoch++;
+		if (epoch == 0) { // The epoch wrapped around, old stamps could match again
+			Arrays.fill(stamps, 0);
+			epoch = 1;
+		}
+		open.clear();
+	}
+
+	/**
+	 * Records a path to a node if it is the first or a shorter one, and adds the node to the open set.
+	 *
+	 * @param node     The id of the node.
+	 * @param distance The length of the path to the node.
+	 * @param from     The node the path comes from, -1 if the node is reached from the start cell.
+	 */
+	private void relax(int node, int distance, int from) {
+		if (stamps[node] != epoch || distance < distances[node]) {
+			stamps[node] = epoch;
+			distances[node] = distance;
+			previous[node] = from;
+			open.add(distance, node);
+		}
+	}
+
+	/**
+	 * Gets the cell of a node of the abstract graph.
+	 *
+	 * @param node The id of the node.
+	 * @return The id of the cell.
+	 */
+	private int cellOf(int node) {
+		int cluster = nodeClusters[node];
+		return nodeCells[cluster][node - nodeStart[cluster]];
+	}
+
+	/**
+	 * Gets the cluster of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The id of the cluster.
+	 */
+	private int clusterOf(int cell) {
+		int width = maze.getWidth();
+		return (cell % width) / clusterSize + (cell / width) / clusterSize * nbClustersX;
+	}
+
+	/**
+	 * Gets the index of a cell among the cells of its cluster.
+	 *
+	 * @param cluster The id of the cluster.
+	 * @param cell    The id of the cell, in the cluster.
+	 * @return The local index of the cell.
+	 */
+	private int localIndex(int cluster, int cell) {
+		int width = maze.getWidth();
+		return (cell % width - clusterX(cluster)) + (cell / width - clusterY(cluster)) * clusterSize;
+	}
+
+	/**
+	 * Gets the x-coordinate of the first column of a cluster.
+	 *
+	 * @param cluster The id of the cluster.
+	 * @return The x-coordinate of the column.
+	 */
+	private int clusterX(int cluster) {
+		return cluster % nbClustersX * clusterSize;
+	}
+
+	/**
+	 * Gets the y-coordinate of the first row of a cluster.
+	 *
+	 * @param cluster The id of the cluster.
+	 * @return The y-coordinate of the row.
+	 */
+	private int clusterY(int cluster) {
+		return cluster / nbClustersX * clusterSize;
+	}
+}
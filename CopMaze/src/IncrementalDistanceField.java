@@ -0,0 +1,314 @@
+import java.util.Arrays;
+
+/**
+ * The IncrementalDistanceField class keeps the distances from every cell of a maze to a moving source cell
+ * with Lifelong Planning A* (model class). Moving the source is seen as removing the zero-length edge from
+ * a virtual start to the old source and adding one to the new source. Only the cells made inconsistent by
+ * the change are queued, and the repair is lazy: it stops as soon as the cell being queried is consistent,
+ * so cells farther from the source than the queried ones are left for a later repair.
+ *
+ * Each cell has a distance g, kept from the last time it was repaired, and a one-step lookahead rhs,
+ * computed from its neighbors. A cell is consistent when both are equal. The queue of inconsistent cells
+ * is a bucket queue, since all the steps have the same length.
+ */
+public class IncrementalDistanceField {
+	/**
+	 * The distance of the cells the source cannot reach.
+	 */
+	private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+	/**
+	 * The maze, whose walls must not change.
+	 */
+	private Maze maze;
+
+	/**
+	 * The id of the source cell.
+	 */
+	private int source;
+
+	/**
+	 * The distance from each cell to the source, as of the last repair of the cell.
+	 */
+	private int[] g;
+
+	/**
+	 * The one-step lookahead of each cell: 0 for the source, 1 plus the lowest g of its neighbors otherwise.
+	 */
+	private int[] rhs;
+
+	/**
+	 * The key each inconsistent cell is queued with, -1 for the cells not in the queue.
+	 */
+	private int[] keys;
+
+	/**
+	 * The first cell of the bucket of each key, -1 for an empty bucket.
+	 */
+	private int[] bucketHeads;
+
+	/**
+	 * The next cell in the bucket of each queued cell, -1 for the last one.
+	 */
+	private int[] nextInBucket;
+
+	/**
+	 * The previous cell in the bucket of each queued cell, -1 for the first one.
+	 */
+	private int[] previousInBucket;
+
+	/**
+	 * A key no lower than the lowest key in the queue, where the search for the top of the queue starts.
+	 */
+	private int minKey = 0;
+
+	/**
+	 * The number of cells in the queue.
+	 */
+	private int queueSize = 0;
+
+	/**
+	 * The number of cells taken out of the queue and repaired since the field was created.
+	 */
+	private long nbRepaired = 0;
+
+	/**
+	 * The buffer receiving the valid moves from a cell.
+	 */
+	private int[] moves = new int[4];
+
+	/**
+	 * The buffer receiving the neighbors of the cell being repaired, kept apart from moves which the
+	 * updates of the neighbors overwrite.
+	 */
+	private int[] neighbors = new int[4];
+
+	/**
+	 * Creates the field of a maze and computes it for a source with a full breadth-first search.
+	 *
+	 * @param maze   The maze, whose walls must not change.
+	 * @param source The id of the source cell.
+	 */
+	public IncrementalDistanceField(Maze maze, int source) {
+		this.maze = maze;
+		this.source = source;
+		int nbCells = maze.getWidth() * maze.getHeight();
+		g = new int[nbCells];
+		rhs = new int[nbCells];
+		keys = new int[nbCells];
+		bucketHeads = new int[nbCells + 1];
+		nextInBucket = new int[nbCells];
+		previousInBucket = new int[nbCells];
+		Arrays.fill(g, INFINITY);
+		Arrays.fill(keys, -1);
+		Arrays.fill(bucketHeads, -1);
+
+		CellQueue queue = new CellQueue();
+		g[source] = 0;
+		queue.add(source);
+		while (!queue.isEmpty()) {
+			int cell = queue.poll();
+			int nbMoves = maze.getValidMoves(cell, moves);
+			for (int i = 0; i < nbMoves; i++) {
+				if (g[moves[i]] == INFINITY) {
+					g[moves[i]] = g[cell] + 1;
+					queue.add(moves[i]);
+				}
+			}
+		}
+		System.arraycopy(g, 0, rhs, 0, nbCells);
+	}
+
+	/**
+	 * Gets the id of the source cell.
+	 *
+	 * @return The id of the source cell.
+	 */
+	public int getSource() {
+		return source;
+	}
+
+	/**
+	 * Moves the source to another cell. Only the old and the new source are updated here, the change
+	 * spreads to the other cells when they are repaired.
+	 *
+	 * @param cell The id of the new source cell.
+	 */
+	public void moveSource(int cell) {
+		if (cell == source) {
+			return;
+		}
+		int oldSource = source;
+		source = cell;
+		updateCell(oldSource);
+		updateCell(cell);
+	}
+
+	/**
+	 * Repairs the field until a cell is consistent and no queued cell could lower its distance.
+	 *
+	 * @param cell The id of the cell whose distance is needed.
+	 */
+	public void repair(int cell) {
+		while (queueSize > 0 && topKey() <= Math.min(g[cell], rhs[cell])) {
+			int u = pollTop();
+			nbRepaired++;
+			int nbNeighbors = maze.getValidMoves(u, neighbors);
+			if (g[u] > rhs[u]) { // Overconsistent, the distance went down
+				g[u] = rhs[u];
+			} else { // Underconsistent, the distance went up and is found again from the neighbors
+				g[u] = INFINITY;
+				updateCell(u);
+			}
+			for (int i = 0; i < nbNeighbors; i++) {
+				updateCell(neighbors[i]);
+			}
+		}
+	}
+
+	/**
+	 * Gets the distance from a cell to the source, repairing the field as needed.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The number of steps to the source, or -1 if the source cannot be reached.
+	 */
+	public int getDistance(int cell) {
+		repair(cell);
+		return g[cell] == INFINITY ? -1 : g[cell];
+	}
+
+	/**
+	 * Gets the next cell on a shortest path from a cell to the source, repairing the field as needed.
+	 * The neighbors with a lower distance than a consistent cell were repaired before it, so their
+	 * distance can be trusted.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The id of the next cell, or the cell itself if it is the source or cannot reach it.
+	 */
+	public int nextStep(int cell) {
+		repair(cell);
+		if (cell == source || g[cell] == INFINITY) {
+			return cell;
+		}
+		int next = cell;
+		int nbMoves = maze.getValidMoves(cell, moves);
+		for (int i = 0; i < nbMoves; i++) {
+			if (g[moves[i]] < g[next]) {
+				next = moves[i];
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Gets the number of cells repaired since the field was created.
+	 *
+	 * @return The number of cells taken out of the queue.
+	 */
+	public long getNbRepaired() {
+		return nbRepaired;
+	}
+
+	/**
+	 * Gets the number of cells waiting to be repaired.
+	 *
+	 * @return The number of inconsistent cells.
+	 */
+	public int getNbInconsistent() {
+		return queueSize;
+	}
+
+	/**
+	 * Gets the memory used by the tables of the field.
+	 *
+	 * @return The size of the tables in bytes.
+	 */
+	public long getMemoryBytes() {
+		return 4L * (g.length + rhs.length + keys.length + bucketHeads.length + nextInBucket.length
+				+ previousInBucket.length);
+	}
+
+	/**
+	 * Computes the lookahead of a cell again and queues it if it is inconsistent.
+	 *
+	 * @param cell The id of the cell.
+	 */
+	private void updateCell(int cell) {
+		if (cell == source) {
+			rhs[cell] = 0;
+		} else {
+			int best = INFINITY;
+			int nbMoves = maze.getValidMoves(cell, moves);
+			for (int i = 0; i < nbMoves; i++) {
+				best = Math.min(best, g[moves[i]] + 1);
+			}
+			rhs[cell] = best;
+		}
+		if (keys[cell] >= 0) {
+			remove(cell);
+		}
+		if (g[cell] != rhs[cell]) {
+			add(cell, Math.min(g[cell], rhs[cell]));
+		}
+	}
+
+	/**
+	 * Gets the lowest key in the queue, which must not be empty.
+	 *
+	 * @return The lowest key.
+	 */
+	private int topKey() {
+		while (bucketHeads[minKey] < 0) {
+			minKey++;
+		}
+		return minKey;
+	}
+
+	/**
+	 * Takes a cell with the lowest key out of the queue, which must not be empty.
+	 *
+	 * @return The id of the cell.
+	 */
+	private int pollTop() {
+		int cell = bucketHeads[topKey()];
+		remove(cell);
+		return cell;
+	}
+
+	/**
+	 * Adds a cell to the queue.
+	 *
+	 * @param cell The id of the cell.
+	 * @param key  The key of the cell.
+	 */
+	private void add(int cell, int key) {
+		keys[cell] = key;
+		previousInBucket[cell] = -1;
+		nextInBucket[cell] = bucketHeads[key];
+		if (bucketHeads[key] >= 0) {
+			previousInBucket[bucketHeads[key]] = cell;
+		}
+		bucketHeads[key] = cell;
+		minKey = Math.min(minKey, key);
+		queueSize++;
+	}
+
+	/**
+	 * Removes a queued cell from the queue.
+	 *
+	 * @param cell The id of the cell.
+	 */
+	private void remove(int cell) {
+		int key = keys[cell];
+		if (previousInBucket[cell] >= 0) {
+			nextInBucket[previousInBucket[cell]] = nextInBucket[cell];
+		} else {
+			bucketHeads[key] = nextInBucket[cell];
+		}
+		if (nextInBucket[cell] >= 0) {
+			previousInBucket[nextInBucket[cell]] = previousInBucket[cell];
+		}
+		keys[cell] = -1;
+		queueSize--;
+	}
+}
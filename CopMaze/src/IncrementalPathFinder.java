@@ -0,0 +1,79 @@
+/**
+ * The IncrementalPathFinder class answers path queries from an incremental distance field towards their
+ * target (model class). When the target moves, like the player chased by the police, the field is repaired
+ * instead of computed again, and only as far as the cells queried need it: a tick where all the police are
+ * close to the player only repairs the area around the player.
+ */
+public class IncrementalPathFinder implements PathFinder {
+	/**
+	 * The maze to search.
+	 */
+	private Maze maze;
+
+	/**
+	 * The distances towards the target of the last query, null before the first query.
+	 */
+	private IncrementalDistanceField field;
+
+	/**
+	 * The version of the walls of the maze the field was computed with.
+	 */
+	private long version;
+
+	/**
+	 * Creates an incremental path finder for a maze.
+	 *
+	 * @param maze The maze to search.
+	 */
+	public IncrementalPathFinder(Maze maze) {
+		this.maze = maze;
+	}
+
+	@Override
+	public synchronized int[] findPath(int from, int to) {
+		IncrementalDistanceField distances = getField(to);
+		int length = distances.getDistance(from);
+		if (length <= 0) {
+			return new int[0];
+		}
+		int[] path = new int[length];
+		int cell = from;
+		for (int i = 0; i < length; i++) {
+			cell = distances.nextStep(cell);
+			path[i] = cell;
+		}
+		return path;
+	}
+
+	@Override
+	public synchronized int nextStep(int from, int to) {
+		return getField(to).nextStep(from);
+	}
+
+	@Override
+	public synchronized long getNbExpanded() {
+		return field == null ? 0 : field.getNbRepaired();
+	}
+
+	@Override
+	public synchronized long getMemoryBytes() {
+		return field == null ? 0 : field.getMemoryBytes();
+	}
+
+	/**
+	 * Gets the distance field towards a target, moving its source if the last query had another target.
+	 * The field is computed again from scratch if the walls changed since.
+	 *
+	 * @param to The id of the target cell.
+	 * @return The distance field whose source is the target.
+	 */
+	private IncrementalDistanceField getField(int to) {
+		if (field == null || version != maze.getVersion()) {
+			version = maze.getVersion();
+			field = new IncrementalDistanceField(maze, to);
+		} else {
+			field.moveSource(to);
+		}
+		return field;
+	}
+}
@@ -0,0 +1,382 @@
+import java.util.Arrays;
+
+/**
+ * The JunctionGraph class contracts the corridors of a maze into a weighted graph (model class). Its nodes
+ * are the cells that are not in the middle of a corridor (junctions, dead ends, and isolated cells), and each
+ * edge is a corridor between two nodes, weighted by its length in steps. Each corridor cell is mapped to its
+ * edge and to its offset along it, so that any cell can join the graph and paths can be expanded back to cells.
+ * The adjacency of the nodes is stored in compressed sparse row arrays.
+ */
+public class JunctionGraph {
+	/**
+	 * For a node cell, the id of the node; for a corridor cell, the id of its edge.
+	 */
+	private int[] cellIndex;
+
+	/**
+	 * For a node cell, 0; for a corridor cell, its number of steps from the first node of its edge.
+	 */
+	private int[] cellOffset;
+
+	/**
+	 * The cell of each node.
+	 */
+	private int[] nodeCells;
+
+	/**
+	 * The number of nodes.
+	 */
+	private int nbNodes = 0;
+
+	/**
+	 * The first node of each edge.
+	 */
+	private int[] edgeFrom;
+
+	/**
+	 * The second node of each edge.
+	 */
+	private int[] edgeTo;
+
+	/**
+	 * The number of steps between the two nodes of each edge.
+	 */
+	private int[] edgeLength;
+
+	/**
+	 * The position of the first corridor cell of each edge in corridorCells.
+	 */
+	private int[] edgeCellStart;
+
+	/**
+	 * The number of edges.
+	 */
+	private int nbEdges = 0;
+
+	/**
+	 * The corridor cells of all the edges, edge after edge, each from its first node to its second.
+	 */
+	private int[] corridorCells;
+
+	/**
+	 * The number of corridor cells assigned to an edge so far.
+	 */
+	private int nbCorridorCells = 0;
+
+	/**
+	 * The start of the adjacency of each node in adjacentEdges, with one more entry for the end.
+	 */
+	private int[] adjacencyStart;
+
+	/**
+	 * The edges leaving each node, node after node.
+	 */
+	private int[] adjacentEdges;
+
+	/**
+	 * The version of the walls of the maze the graph was built with.
+	 */
+	private long version;
+
+	/**
+	 * Contracts the corridors of a maze.
+	 *
+	 * @param maze The maze, whose walls must not change during the contraction.
+	 */
+	public JunctionGraph(Maze maze) {
+		version = maze.getVersion();
+		int nbCells = maze.getWidth() * maze.getHeight();
+		cellIndex = new int[nbCells];
+		cellOffset = new int[nbCells];
+		Arrays.fill(cellIndex, -1);
+		int[] moves = new int[4];
+
+		// Every cell not in the middle of a corridor is a node
+		int nbCorridors = 0;
+		for (int cell = 0; cell < nbCells; cell++) {
+			if (maze.getValidMoves(cell, moves) != 2) {
+				nbNodes++;
+			} else {
+				nbCorridors++;
+			}
+		}
+		nodeCells = new int[Math.max(1, nbNodes)];
+		corridorCells = new int[nbCorridors];
+		edgeFrom = new int[Math.max(1, nbNodes)];
+		edgeTo = new int[edgeFrom.length];
+		edgeLength = new int[edgeFrom.length];
+		edgeCellStart = new int[edgeFrom.length];
+		nbNodes = 0;
+		for (int cell = 0; cell < nbCells; cell++) {
+			if (maze.getValidMoves(cell, moves) != 2) {
+				addNode(cell);
+			}
+		}
+		for (int node = 0; node < nbNodes; node++) {
+			traceEdges(maze, node, moves);
+		}
+		// Corridors closing on themselves have no node, one of their cells becomes one
+		for (int cell = 0; cell < nbCells; cell++) {
+			if (cellIndex[cell] < 0) {
+				traceEdges(maze, addNode(cell), moves);
+			}
+		}
+
+		// Adjacency in compressed sparse rows, a corridor looping on a node appears twice in its row
+		adjacencyStart = new int[nbNodes + 1];
+		for (int edge = 0; edge < nbEdges; edge++) {
+			adjacencyStart[edgeFrom[edge] + 1]++;
+			adjacencyStart[edgeTo[edge] + 1]++;
+		}
+		for (int node = 0; node < nbNodes; node++) {
+			adjacencyStart[node + 1] += adjacencyStart[node];
+		}
+		adjacentEdges = new int[2 * nbEdges];
+		int[] next = Arrays.copyOf(adjacencyStart, nbNodes);
+		for (int edge = 0; edge < nbEdges; edge++) {
+			adjacentEdges[next[edgeFrom[edge]]++] = edge;
+			adjacentEdges[next[edgeTo[edge]]++] = edge;
+		}
+	}
+
+	/**
+	 * Makes a cell a node.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The id of the new node.
+	 */
+	private int addNode(int cell) {
+		if (nbNodes == nodeCells.length) {
+			nodeCells = Arrays.copyOf(nodeCells, nbNodes * 2);
+		}
+		nodeCells[nbNodes] = cell;
+		cellIndex[cell] = nbNodes;
+		cellOffset[cell] = 0;
+		return nbNodes++;
+	}
+
+	/**
+	 * Follows the corridors leaving a node and adds the edges not traced from their other end yet.
+	 *
+	 * @param maze  The maze.
+	 * @param node  The id of the node.
+	 * @param moves A buffer for the valid moves from a cell.
+	 */
+	private void traceEdges(Maze maze, int node, int[] moves) {
+		int start = nodeCells[node];
+		int[] firstSteps = new int[4];
+		int nbFirstSteps = maze.getValidMoves(start, firstSteps);
+		for (int i = 0; i < nbFirstSteps; i++) {
+			int cell = firstSteps[i];
+			if (isNode(cell)) {
+				// Adjacent nodes are linked once, from the node with the lowest id
+				if (node < cellIndex[cell]) {
+					addEdge(node, cellIndex[cell], 1, nbCorridorCells);
+				}
+				continue;
+			}
+			if (cellIndex[cell] >= 0) { // Already traced from the other end
+				continue;
+			}
+			int edge = nbEdges;
+			int cellStart = nbCorridorCells;
+			int previous = start;
+			int offset = 1;
+			while (!isNode(cell)) {
+				cellIndex[cell] = edge;
+				cellOffset[cell] = offset++;
+				corridorCells[nbCorridorCells++] = cell;
+				maze.getValidMoves(cell, moves);
+				int next = moves[0] != previous ? moves[0] : moves[1];
+				previous = cell;
+				cell = next;
+			}
+			addEdge(node, cellIndex[cell], offset, cellStart);
+		}
+	}
+
+	/**
+	 * Adds an edge between two nodes.
+	 *
+	 * @param from      The id of the first node.
+	 * @param to        The id of the second node.
+	 * @param length    The number of steps between the nodes.
+	 * @param cellStart The position of the first corridor cell of the edge in corridorCells.
+	 */
+	private void addEdge(int from, int to, int length, int cellStart) {
+		if (nbEdges == edgeFrom.length) {
+			edgeFrom = Arrays.copyOf(edgeFrom, nbEdges * 2);
+			edgeTo = Arrays.copyOf(edgeTo, nbEdges * 2);
+			edgeLength = Arrays.copyOf(edgeLength, nbEdges * 2);
+			edgeCellStart = Arrays.copyOf(edgeCellStart, nbEdges * 2);
+		}
+		edgeFrom[nbEdges] = from;
+		edgeTo[nbEdges] = to;
+		edgeLength[nbEdges] = length;
+		edgeCellStart[nbEdges] = cellStart;
+		nbEdges++;
+	}
+
+	/**
+	 * Gets the version of the walls of the maze the graph was built with.
+	 *
+	 * @return The version of the walls.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the number of nodes of the graph.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int getNbNodes() {
+		return nbNodes;
+	}
+
+	/**
+	 * Gets the number of edges of the graph.
+	 *
+	 * @return The number of edges.
+	 */
+	public int getNbEdges() {
+		return nbEdges;
+	}
+
+	/**
+	 * Checks if a cell is a node of the graph.
+	 *
+	 * @param cell The id of the cell.
+	 * @return True if the cell is a node, false if it is in the middle of a corridor.
+	 */
+	public boolean isNode(int cell) {
+		return cellIndex[cell] >= 0 && cellOffset[cell] == 0;
+	}
+
+	/**
+	 * Gets the node of a node cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The id of the node.
+	 */
+	public int getNodeOf(int cell) {
+		return cellIndex[cell];
+	}
+
+	/**
+	 * Gets the edge of a corridor cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The id of the edge.
+	 */
+	public int getEdgeOf(int cell) {
+		return cellIndex[cell];
+	}
+
+	/**
+	 * Gets the number of steps between a corridor cell and the first node of its edge.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The offset of the cell along its edge, between 1 and the length of the edge minus 1.
+	 */
+	public int getOffsetOf(int cell) {
+		return cellOffset[cell];
+	}
+
+	/**
+	 * Gets the cell of a node.
+	 *
+	 * @param node The id of the node.
+	 * @return The id of the cell.
+	 */
+	public int getNodeCell(int node) {
+		return nodeCells[node];
+	}
+
+	/**
+	 * Gets the first node of an edge.
+	 *
+	 * @param edge The id of the edge.
+	 * @return The id of the node at offset 0.
+	 */
+	public int getEdgeFrom(int edge) {
+		return edgeFrom[edge];
+	}
+
+	/**
+	 * Gets the second node of an edge.
+	 *
+	 * @param edge The id of the edge.
+	 * @return The id of the node at the offset equal to the length of the edge.
+	 */
+	public int getEdgeTo(int edge) {
+		return edgeTo[edge];
+	}
+
+	/**
+	 * Gets the length of an edge.
+	 *
+	 * @param edge The id of the edge.
+	 * @return The number of steps between the two nodes of the edge.
+	 */
+	public int getEdgeLength(int edge) {
+		return edgeLength[edge];
+	}
+
+	/**
+	 * Gets the cell at an offset along an edge.
+	 *
+	 * @param edge   The id of the edge.
+	 * @param offset The number of steps from the first node of the edge, between 0 and its length.
+	 * @return The id of the cell.
+	 */
+	public int getEdgeCell(int edge, int offset) {
+		if (offset == 0) {
+			return nodeCells[edgeFrom[edge]];
+		} else if (offset == edgeLength[edge]) {
+			return nodeCells[edgeTo[edge]];
+		}
+		return corridorCells[edgeCellStart[edge] + offset - 1];
+	}
+
+	/**
+	 * Gets the start of the adjacency of a node, to iterate with getAdjacentEdge up to getAdjacencyEnd.
+	 *
+	 * @param node The id of the node.
+	 * @return The position of the first edge leaving the node.
+	 */
+	public int getAdjacencyStart(int node) {
+		return adjacencyStart[node];
+	}
+
+	/**
+	 * Gets the end of the adjacency of a node.
+	 *
+	 * @param node The id of the node.
+	 * @return The position after the last edge leaving the node.
+	 */
+	public int getAdjacencyEnd(int node) {
+		return adjacencyStart[node + 1];
+	}
+
+	/**
+	 * Gets an edge of the adjacency of the nodes.
+	 *
+	 * @param position The position in the adjacency.
+	 * @return The id of the edge.
+	 */
+	public int getAdjacentEdge(int position) {
+		return adjacentEdges[position];
+	}
+
+	/**
+	 * Gets the memory used by the arrays of the graph.
+	 *
+	 * @return The size of the arrays in bytes.
+	 */
+	public long getMemoryBytes() {
+		return 4L * (cellIndex.length + cellOffset.length + nodeCells.length + edgeFrom.length * 4
+				+ corridorCells.length + adjacencyStart.length + adjacentEdges.length);
+	}
+}
@@ -0,0 +1,322 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The JunctionPathFinder class finds shortest paths on the junction graph of a maze (model class). Dijkstra's
+ * algorithm runs over the nodes only, the start and target cells joining the graph through the ends of their
+ * corridor, and the path is expanded back to cells once found. A search therefore expands one node per
+ * corridor instead of one per cell. The graph is built on the first query, and again when the walls change.
+ */
+public class JunctionPathFinder implements PathFinder {
+	/**
+	 * The maze to search.
+	 */
+	private Maze maze;
+
+	/**
+	 * The junction graph of the maze, null until the first query.
+	 */
+	private volatile JunctionGraph graph;
+
+	/**
+	 * The search state of each thread running searches in the maze.
+	 */
+	private ThreadLocal<JunctionScratch> searchScratch = ThreadLocal.withInitial(
+			() -> new JunctionScratch(getGraph().getNbNodes()));
+
+	/**
+	 * The number of nodes expanded by all the searches.
+	 */
+	private LongAdder nbExpanded = new LongAdder();
+
+	/**
+	 * Creates a junction graph path finder for a maze.
+	 *
+	 * @param maze The maze to search.
+	 */
+	public JunctionPathFinder(Maze maze) {
+		this.maze = maze;
+	}
+
+	/**
+	 * Gets the junction graph of the maze, contracting the maze on the first call and after the walls change.
+	 *
+	 * @return The junction graph.
+	 */
+	public JunctionGraph getGraph() {
+		JunctionGraph g = graph;
+		if (g == null || g.getVersion() != maze.getVersion()) {
+			synchronized (this) {
+				g = graph;
+				if (g == null || g.getVersion() != maze.getVersion()) {
+					g = new JunctionGraph(maze);
+					graph = g;
+				}
+			}
+		}
+		return g;
+	}
+
+	@Override
+	public int[] findPath(int from, int to) {
+		if (from == to) {
+			return new int[0];
+		}
+		JunctionGraph g = getGraph();
+		JunctionScratch scratch = searchScratch.get();
+		if (scratch.distances.length < g.getNbNodes()) { // The graph was built again with more nodes
+			scratch = new JunctionScratch(g.getNbNodes());
+			searchScratch.set(scratch);
+		}
+		scratch.reset();
+		CellHeap open = scratch.open;
+
+		// The start and target on the same corridor can be joined without leaving it
+		int best = Integer.MAX_VALUE;
+		int bestNode = -1;
+		boolean targetFromFirstNode = false;
+		if (!g.isNode(from) && !g.isNode(to) && g.getEdgeOf(from) == g.getEdgeOf(to)) {
+			best = Math.abs(g.getOffsetOf(from) - g.getOffsetOf(to));
+		}
+
+		// The start joins the graph at its node, or at both ends of its corridor
+		if (g.isNode(from)) {
+			relax(scratch, g.getNodeOf(from), 0, -1, -1);
+		} else {
+			int edge = g.getEdgeOf(from);
+			relax(scratch, g.getEdgeFrom(edge), g.getOffsetOf(from), -1, -1);
+			relax(scratch, g.getEdgeTo(edge), g.getEdgeLength(edge) - g.getOffsetOf(from), -1, -1);
+		}
+
+		int expanded = 0;
+		while (!open.isEmpty()) {
+			long entry = open.poll();
+			int node = CellHeap.cellOf(entry);
+			int distance = CellHeap.priorityOf(entry);
+			if (distance != scratch.distances[node]) { // A shorter path to the node was found since
+				continue;
+			}
+			if (distance >= best) {
+				break;
+			}
+			expanded++;
+			// The target is the node itself, or is reached from one end of its corridor
+			if (g.isNode(to)) {
+				if (g.getNodeCell(node) == to) {
+					best = distance;
+					bestNode = node;
+					break;
+				}
+			} else {
+				int edge = g.getEdgeOf(to);
+				if (g.getEdgeFrom(edge) == node && distance + g.getOffsetOf(to) < best) {
+					best = distance + g.getOffsetOf(to);
+					bestNode = node;
+					targetFromFirstNode = true;
+				}
+				if (g.getEdgeTo(edge) == node && distance + g.getEdgeLength(edge) - g.getOffsetOf(to) < best) {
+					best = distance + g.getEdgeLength(edge) - g.getOffsetOf(to);
+					bestNode = node;
+					targetFromFirstNode = false;
+				}
+			}
+			for (int i = g.getAdjacencyStart(node); i < g.getAdjacencyEnd(node); i++) {
+				int edge = g.getAdjacentEdge(i);
+				int next = g.getEdgeFrom(edge) == node ? g.getEdgeTo(edge) : g.getEdgeFrom(edge);
+				relax(scratch, next, distance + g.getEdgeLength(edge), edge, node);
+			}
+		}
+		nbExpanded.add(expanded);
+		if (best == Integer.MAX_VALUE) {
+			return new int[0];
+		}
+		return expand(g, scratch, from, to, best, bestNode, targetFromFirstNode);
+	}
+
+	@Override
+	public int nextStep(int from, int to) {
+		int[] path = findPath(from, to);
+		return path.length == 0 ? from : path[0];
+	}
+
+	@Override
+	public long getNbExpanded() {
+		return nbExpanded.sum();
+	}
+
+	@Override
+	public long getMemoryBytes() {
+		JunctionGraph g = graph;
+		return g == null ? 0 : g.getMemoryBytes();
+	}
+
+	/**
+	 * Records a path to a node if it is the first or a shorter one, and adds the node to the open set.
+	 *
+	 * @param scratch  The scratch of the search.
+	 * @param node     The id of the node.
+	 * @param distance The length of the path to the node.
+	 * @param edge     The edge the node is reached through, -1 if it is reached from the start cell.
+	 * @param previous The node the edge comes from, -1 if the node is reached from the start cell.
+	 */
+	private void relax(JunctionScratch scratch, int node, int distance, int edge, int previous) {
+		if (!scratch.isReached(node) || distance < scratch.distances[node]) {
+			scratch.reach(node);
+			scratch.distances[node] = distance;
+			scratch.previousEdges[node] = edge;
+			scratch.previousNodes[node] = previous;
+			scratch.open.add(distance, node);
+		}
+	}
+
+	/**
+	 * Expands the path found on the graph back to cells, filling it from the target backwards.
+	 *
+	 * @param g                   The junction graph.
+	 * @param scratch             The scratch of the search.
+	 * @param from                The id of the start cell.
+	 * @param to                  The id of the target cell.
+	 * @param length              The length of the path.
+	 * @param lastNode            The last node of the path, -1 if the path stays on the corridor of the start.
+	 * @param targetFromFirstNode True if the target is reached from the first node of its corridor.
+	 * @return The ids of the cells of the path after the start cell, ending with the target cell.
+	 */
+	private int[] expand(JunctionGraph g, JunctionScratch scratch, int from, int to, int length, int lastNode,
+			boolean targetFromFirstNode) {
+		int[] path = new int[length];
+		int position = length;
+		if (lastNode < 0) {
+			int edge = g.getEdgeOf(from);
+			int step = g.getOffsetOf(to) > g.getOffsetOf(from) ? 1 : -1;
+			for (int offset = g.getOffsetOf(to); offset != g.getOffsetOf(from); offset -= step) {
+				path[--position] = g.getEdgeCell(edge, offset);
+			}
+			return path;
+		}
+
+		// From the last node to the target along the corridor of the target
+		if (!g.isNode(to)) {
+			int edge = g.getEdgeOf(to);
+			if (targetFromFirstNode) {
+				for (int offset = g.getOffsetOf(to); offset > 0; offset--) {
+					path[--position] = g.getEdgeCell(edge, offset);
+				}
+			} else {
+				for (int offset = g.getOffsetOf(to); offset < g.getEdgeLength(edge); offset++) {
+					path[--position] = g.getEdgeCell(edge, offset);
+				}
+			}
+		}
+
+		// From node to node back to the node where the start joined the graph
+		int node = lastNode;
+		while (scratch.previousEdges[node] >= 0) {
+			int edge = scratch.previousEdges[node];
+			path[--position] = g.getNodeCell(node);
+			if (g.getEdgeTo(edge) == node && g.getEdgeFrom(edge) == scratch.previousNodes[node]) {
+				for (int offset = g.getEdgeLength(edge) - 1; offset > 0; offset--) {
+					path[--position] = g.getEdgeCell(edge, offset);
+				}
+			} else {
+				for (int offset = 1; offset < g.getEdgeLength(edge); offset++) {
+					path[--position] = g.getEdgeCell(edge, offset);
+				}
+			}
+			node = scratch.previousNodes[node];
+		}
+
+		// From the start to the node where it joined the graph along the corridor of the start
+		if (!g.isNode(from)) {
+			int edge = g.getEdgeOf(from);
+			path[--position] = g.getNodeCell(node);
+			if (g.getEdgeFrom(edge) == node && scratch.distances[node] == g.getOffsetOf(from)) {
+				for (int offset = 1; offset < g.getOffsetOf(from); offset++) {
+					path[--position] = g.getEdgeCell(edge, offset);
+				}
+			} else {
+				for (int offset = g.getEdgeLength(edge) - 1; offset > g.getOffsetOf(from); offset--) {
+					path[--position] = g.getEdgeCell(edge, offset);
+				}
+			}
+		}
+		return path;
+	}
+}
+
+/**
+ * The search state of the junction path finder for one thread: the nodes reached, their distance from the
+ * start and how they were reached, and the open set.
+ */
+class JunctionScratch {
+	/**
+	 * The epoch of the last search that reached each node.
+	 */
+	private int[] stamps;
+
+	/**
+	 * The epoch of the current search.
+	 */
+	private int epoch = 0;
+
+	/**
+	 * The length of the shortest path found so far to each reached node.
+	 */
+	int[] distances;
+
+	/**
+	 * The edge each reached node was reached through, -1 for the nodes reached from the start cell.
+	 */
+	int[] previousEdges;
+
+	/**
+	 * The node each reached node was reached from, -1 for the nodes reached from the start cell.
+	 */
+	int[] previousNodes;
+
+	/**
+	 * The nodes waiting to be expanded.
+	 */
+	CellHeap open = new CellHeap();
+
+	/**
+	 * Creates the scratch for a junction graph.
+	 *
+	 * @param nbNodes The number of nodes of the graph.
+	 */
+	JunctionScratch(int nbNodes) {
+		stamps = new int[nbNodes];
+		distances = new int[nbNodes];
+		previousEdges = new int[nbNodes];
+		previousNodes = new int[nbNodes];
+	}
+
+	/**
+	 * Starts a new search, which marks all the nodes as unreached in O(1).
+	 */
+	void reset() {
+		epoch++;
+		if (epoch == 0) { // The epoch wrapped around, old stamps could match again
+			java.util.Arrays.fill(stamps, 0);
+			epoch = 1;
+		}
+		open.clear();
+	}
+
+	/**
+	 * Checks if a node has been reached by the current search.
+	 *
+	 * @param node The id of the node.
+	 * @return True if the node has been reached, false otherwise.
+	 */
+	boolean isReached(int node) {
+		return stamps[node] == epoch;
+	}
+
+	/**
+	 * Marks a node as reached by the current search.
+	 *
+	 * @param node The id of the node.
+	 */
+	void reach(int node) {
+		stamps[node] = epoch;
+	}
+}
@@ -0,0 +1,84 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This class generates mazes with the randomized Kruskal's algorithm (model class).
+ * The inner walls are removed in a random order whenever they separate two cells that are not
+ * connected yet, which is checked with a union-find structure over packed integer ids.
+ */
+public class KruskalGenerator implements MazeGenerator {
+
+	/**
+	 * Carves a perfect maze into the given grid using Kruskal's algorithm.
+	 *
+	 * @param maze The cells of the maze.
+	 * @param random The source of randomness of the generation.
+	 */
+	@Override
+	public void generate(CellGrid maze, SplittableRandom random) {
+		int n = maze.getWidth();
+		int m = maze.getHeight();
+		// Cell ids are x + y * n, wall ids are cell * 2 for the right wall and cell * 2 + 1 for the bottom wall
+		int nbWalls = 0;
+		int[] walls = new int[2 * n * m];
+		for (int y = 0; y < m; y++) {
+			for (int x = 0; x < n; x++) {
+				int cell = x + y * n;
+				if (x < n - 1) {
+					walls[nbWalls++] = cell * 2;
+				}
+				if (y < m - 1) {
+					walls[nbWalls++] = cell * 2 + 1;
+				}
+			}
+		}
+
+		int[] parents = new int[n * m];
+		for (int i = 0; i < parents.length; i++) {
+			parents[i] = i;
+		}
+		int[] sizes = new int[n * m];
+		Arrays.fill(sizes, 1);
+
+		// Go through the walls in a random order, the shuffle is done lazily
+		int nbComponents = n * m;
+		for (int i = 0; i < nbWalls && nbComponents > 1; i++) {
+			int j = i + random.nextInt(nbWalls - i);
+			int wall = walls[j];
+			walls[j] = walls[i];
+			walls[i] = wall;
+
+			int cell = wall >> 1;
+			int other = (wall & 1) == 0 ? cell + 1 : cell + n;
+			int root = find(parents, cell);
+			int otherRoot = find(parents, other);
+			if (root != otherRoot) {
+				// Union by size
+				if (sizes[root] < sizes[otherRoot]) {
+					int tmp = root;
+					root = otherRoot;
+					otherRoot = tmp;
+				}
+				parents[otherRoot] = root;
+				sizes[root] += sizes[otherRoot];
+				nbComponents--;
+				maze.openPassage(cell % n, cell / n, (wall & 1) == 0 ? Maze.RIGHT : Maze.BOTTOM);
+			}
+		}
+	}
+
+	/**
+	 * Finds the representative of the set of a cell, halving the path on the way.
+	 *
+	 * @param parents The parent of each cell in the union-find structure.
+	 * @param cell The id of the cell.
+	 * @return The id of the representative cell.
+	 */
+	private static int find(int[] parents, int cell) {
+		while (parents[cell] != cell) {
+			parents[cell] = parents[parents[cell]];
+			cell = parents[cell];
+		}
+		return cell;
+	}
+}
@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The MappedCellGrid class stores the cells of a maze off the heap, in a memory-mapped file with one byte
+ * per cell, row by row (model class). The operating system pages the cells in and out lazily, so the grid
+ * can be far larger than the heap. A single mapping cannot exceed 2 GB, so the file is mapped in segments.
+ * It is meant to be paired with a generator whose own memory does not grow with the maze, such as EllerGenerator.
+ */
+public class MappedCellGrid implements CellGrid, AutoCloseable {
+	/**
+	 * The base 2 logarithm of the size of a segment, in bytes.
+	 */
+	private static final int SEGMENT_SHIFT = 30;
+
+	/**
+	 * The mask giving the offset of a cell in its segment.
+	 */
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+	/**
+	 * The width of the grid (number of columns).
+	 */
+	private final int width;
+
+	/**
+	 * The height of the grid (number of rows).
+	 */
+	private final int height;
+
+	/**
+	 * The channel of the mapped file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The mapped segments of the file, each one covering 2^SEGMENT_SHIFT cells.
+	 */
+	private final MappedByteBuffer[] segments;
+
+	/**
+	 * Creates a grid stored in a file, whose cells all have their four walls.
+	 * The previous content of the file is lost.
+	 *
+	 * @param file The file storing the cells.
+	 * @param width The width of the grid (number of columns).
+	 * @param height The height of the grid (number of rows).
+	 * @throws IOException If the file cannot be created or mapped.
+	 */
+	public MappedCellGrid(Path file, int width, int height) throws IOException {
+		assert width > 0 && height > 0;
+		this.width = width;
+		this.height = height;
+		// Cell ids are ints
+		long nbCells = Math.multiplyExact(width, height);
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		int nbSegments = (int) ((nbCells + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+		segments = new MappedByteBuffer[nbSegments];
+		for (int i = 0; i < nbSegments; i++) {
+			long position = (long) i << SEGMENT_SHIFT;
+			long size = Math.min(1L << SEGMENT_SHIFT, nbCells - position);
+			segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+		}
+	}
+
+	/**
+	 * Creates a grid stored in a temporary file, deleted when the program exits.
+	 *
+	 * @param width The width of the grid (number of columns).
+	 * @param height The height of the grid (number of rows).
+	 * @return The new grid.
+	 * @throws IOException If the file cannot be created or mapped.
+	 */
+	public static MappedCellGrid createTemporary(int width, int height) throws IOException {
+		Path file = Files.createTempFile("copmaze", ".cells");
+		file.toFile().deleteOnExit();
+		return new MappedCellGrid(file, width, height);
+	}
+
+	/**
+	 * Gets the width of the grid.
+	 *
+	 * @return The number of columns.
+	 */
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the height of the grid.
+	 *
+	 * @return The number of rows.
+	 */
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Gets the bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The bits of the cell.
+	 */
+	@Override
+	public int get(int cell) {
+		return segments[cell >>> SEGMENT_SHIFT].get((int) (cell & SEGMENT_MASK)) & 0xFF;
+	}
+
+	/**
+	 * Replaces the bits of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @param bits The new bits of the cell.
+	 */
+	@Override
+	public void set(int cell, int bits) {
+		segments[cell >>> SEGMENT_SHIFT].put((int) (cell & SEGMENT_MASK), (byte) bits);
+	}
+
+	/**
+	 * Writes the modified cells back to the file.
+	 */
+	public void flush() {
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+	}
+
+	/**
+	 * Closes the file. The mapping stays valid until the grid is garbage collected.
+	 *
+	 * @throws IOException If the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
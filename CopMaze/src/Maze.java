@@ -1,6 +1,9 @@
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.Collections;
+import java.util.SplittableRandom;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -60,6 +63,23 @@ public class Maze {
      * Constant representing total number of turns police characters alternate between going to the player and their origin.
      */
 	static final int TOTAL_POLICE_TURNS = POLICE_GO_TO_PLAYER + POLICE_GO_TO_ORIGIN;
+
+	/**
+	 * Constant representing the default size of the path cache in bytes.
+	 */
+	static final long PATH_CACHE_BYTES = 1 << 20;
+
+	/**
+	 * Constant representing the largest maze, in cells, whose path queries use an incremental distance field
+	 * by default. The field takes about 24 bytes per cell on the heap, against 3 bits for a direction field.
+	 */
+	static final int INCREMENTAL_MAX_CELLS = 1 << 22;
+
+	/**
+	 * Constant representing the number of cells whose wall changes are remembered for the tables built from
+	 * the walls to update.
+	 */
+	static final int WALL_CHANGE_LOG_SIZE = 4096;
 	
 	 /**
      * Constant representing the left wall of a maze cell.
@@ -86,26 +106,6 @@ public class Maze {
      */
 	static final int GEM = 16;
 	
-	/**
-     * Constant representing the left wall as visited during pathfinding.
-     */
-	static final int VISITED_LEFT = 32;
-	
-	/**
-     * Constant representing the bottom wall as visited during pathfinding.
-     */
-	static final int VISITED_BOTTOM = 64;
-	
-	/**
-     * Constant representing the right wall as visited during pathfinding.
-     */
-	static final int VISITED_RIGHT = 128;
-	
-	/**
-     * Constant representing the top wall as visited during pathfinding.
-     */
-	static final int VISITED_TOP = 256;
-	
 	/**
 	 * Constant representing the game state when the maze is in progress.
 	 */
@@ -122,9 +122,9 @@ public class Maze {
 	private static final int LOST = 2;
 	
 	 /**
-     * The 2D array representing the structure of the maze.
+     * The cells representing the structure of the maze, stored row by row.
      */
-	private int[][] maze;
+	private CellGrid maze;
 	
 	/**
      * An array of Gem objects in the maze.
@@ -140,6 +140,11 @@ public class Maze {
      * The Door object in the maze.
      */
 	private Door door;
+
+	/**
+	 * The index of the cells occupied by the gems, police, key, and door.
+	 */
+	private EntityIndex entities;
 	
 	/**
      * The main character in the maze.
@@ -161,6 +166,11 @@ public class Maze {
      */
 	private Police[] police;
 
+	/**
+	 * The placer drawing the free cells where the entities are added.
+	 */
+	private EntityPlacer placer;
+
     /**
      * A flag to control the activation of police characters in the maze.
      */
@@ -181,6 +191,43 @@ public class Maze {
      */
 	private SoundDetector soundDetector = new SoundDetector();
 	
+	/**
+	 * The seed from which all the random decisions of the maze are drawn.
+	 */
+	private long seed;
+	
+	/**
+	 * The random number generator of the maze, seeded with seed.
+	 */
+	private SplittableRandom random;
+	
+	/**
+	 * The algorithm answering the path queries of the maze and of its police, an incremental distance field
+	 * for the mazes of at most INCREMENTAL_MAX_CELLS cells and a direction field for the larger ones.
+	 */
+	private PathFinder pathFinder = new FieldPathFinder(this);
+
+	/**
+	 * The walls of the maze as packed bitmaps, built when first needed and dropped when a wall changes.
+	 */
+	private volatile WallBitmaps wallBitmaps;
+
+	/**
+	 * The number of times the walls of the maze or the door changed, for the tables built from them to
+	 * know when they are stale.
+	 */
+	private volatile long version = 0;
+
+	/**
+	 * The last cells whose walls changed, for the tables built from the walls to update only what they touch.
+	 */
+	private WallChangeLog wallChanges = new WallChangeLog(WALL_CHANGE_LOG_SIZE);
+
+	/**
+	 * The cache of the path queries of the maze and of its police.
+	 */
+	private PathCache pathCache = new PathCache(this, PATH_CACHE_BYTES);
+	
 	/**
 	 * Constructs a Maze object with the specified parameters.
 	 *
@@ -192,16 +239,82 @@ public class Maze {
 	 * @param nbPolice The number of police characters to place in the maze.
 	 */
 	public Maze(int width, int height, double easiness, Character character, int nbGems, int nbPolice) {
+		this(width, height, easiness, character, nbGems, nbPolice, new WilsonGenerator());
+	}
+
+	/**
+	 * Constructs a Maze object with the specified parameters and maze generation algorithm.
+	 *
+	 * @param width The width (number of columns) of the maze.
+	 * @param height The height (number of rows) of the maze.
+	 * @param easiness A coefficient to adjust the maze difficulty.
+	 * @param character The main character in the maze.
+	 * @param nbGems The number of gems to place in the maze.
+	 * @param nbPolice The number of police characters to place in the maze.
+	 * @param generator The algorithm used to carve the maze.
+	 */
+	public Maze(int width, int height, double easiness, Character character, int nbGems, int nbPolice,
+			MazeGenerator generator) {
+		this(width, height, easiness, character, nbGems, nbPolice, generator, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructs a Maze object from a seed. All the random decisions of the maze are drawn from
+	 * this seed, so the same parameters and seed always produce the same level.
+	 *
+	 * @param width The width (number of columns) of the maze.
+	 * @param height The height (number of rows) of the maze.
+	 * @param easiness A coefficient to adjust the maze difficulty.
+	 * @param character The main character in the maze.
+	 * @param nbGems The number of gems to place in the maze.
+	 * @param nbPolice The number of police characters to place in the maze.
+	 * @param generator The algorithm used to carve the maze.
+	 * @param seed The seed of the random decisions of the maze.
+	 */
+	public Maze(int width, int height, double easiness, Character character, int nbGems, int nbPolice,
+			MazeGenerator generator, long seed) {
+		this(new HeapCellGrid(width, height), easiness, character, nbGems, nbPolice, generator, seed);
+	}
+
+	/**
+	 * Constructs a Maze object from a seed, carved into the given storage. This allows keeping the cells
+	 * off the heap, for instance in a MappedCellGrid for mazes larger than the heap.
+	 *
+	 * @param cells The storage of the cells of the maze, all of them with their four walls.
+	 * @param easiness A coefficient to adjust the maze difficulty.
+	 * @param character The main character in the maze.
+	 * @param nbGems The number of gems to place in the maze.
+	 * @param nbPolice The number of police characters to place in the maze.
+	 * @param generator The algorithm used to carve the maze.
+	 * @param seed The seed of the random decisions of the maze.
+	 */
+	public Maze(CellGrid cells, double easiness, Character character, int nbGems, int nbPolice,
+			MazeGenerator generator, long seed) {
 		this.character = character;
 		this.policeActive = true;
-		generate(width, height);
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+		generate(cells, generator);
+		if (cells.size() <= INCREMENTAL_MAX_CELLS) {
+			pathFinder = new IncrementalPathFinder(this);
+		}
 		makeMazeEasier(easiness);
 		addExit();
+		placer = new EntityPlacer(cells.size(), random.split());
+		entities = new EntityIndex(nbGems, nbPolice);
 		addGems(nbGems);
 		addKey();
 		addDoor();
 		addPolice(nbPolice);
-		soundDetector.start(200);
+	}
+
+	/**
+	 * Gets the seed from which the maze was generated.
+	 *
+	 * @return The seed of the maze.
+	 */
+	public long getSeed() {
+		return seed;
 	}
 
 	/**
@@ -248,7 +361,7 @@ public class Maze {
      * @return The width of the maze.
      */
 	public int getWidth() {
-		return maze.length;
+		return maze.getWidth();
 	}
 	
 	/**
@@ -257,7 +370,7 @@ public class Maze {
      * @return The height of the maze.
      */
 	public int getHeight() {
-		return maze[0].length;
+		return maze.getHeight();
 	}
 	
 	 /**
@@ -268,7 +381,7 @@ public class Maze {
      * @return True if there is a wall in the top direction, false otherwise.
      */
 	public boolean hasTopWall(int x, int y) {
-		return (maze[x][y] & TOP) == 0;
+		return (maze.get(x, y) & TOP) == 0;
 	}
 	
 	 /**
@@ -279,7 +392,7 @@ public class Maze {
      * @return True if there is a wall in the right direction, false otherwise.
      */
 	public boolean hasRightWall(int x, int y) {
-		return (maze[x][y] & RIGHT) == 0;
+		return (maze.get(x, y) & RIGHT) == 0;
 	}
 	
 	/**
@@ -290,7 +403,7 @@ public class Maze {
      * @return True if there is a wall in the bottom direction, false otherwise.
      */
 	public boolean hasBottomWall(int x, int y) {
-		return (maze[x][y] & BOTTOM) == 0;
+		return (maze.get(x, y) & BOTTOM) == 0;
 	}
 	
 	 /**
@@ -301,170 +414,99 @@ public class Maze {
      * @return True if there is a wall in the left direction, false otherwise.
      */
 	public boolean hasLeftWall(int x, int y) {
-		return (maze[x][y] & LEFT) == 0;
+		return (maze.get(x, y) & LEFT) == 0;
 	}
 
 	 /**
-     * Generates a maze of the specified dimensions using Wilson's algorithm.
+     * Generates a maze into the given cells with the given generator.
      *
-     * @param n The width of the maze.
-     * @param m The height of the maze.
+     * @param cells The storage of the cells of the maze, all of them with their four walls.
+     * @param generator The algorithm used to carve the maze.
      */
-	void generate(int n, int m) {
-		assert n > 0 && m > 0;
-		maze = new int[n][m];
-		ArrayList<Coordinate> unconnectedCells = getUnconnectedCells();
-		int index = (int) (Math.random() * unconnectedCells.size());
-		Coordinate target = unconnectedCells.get(index);
-		while (unconnectedCells.size() > 0) {
-			Coordinate start;
-			do {
-				index = (int) (Math.random() * unconnectedCells.size());
-				start = unconnectedCells.get(index);
-			} while (start.x == target.x && start.y == target.y);
-			// The first time: stops at target, then: stops when joining the maze
-			ArrayList<Coordinate> path = randomWalk(start, target);
-			openPath(path);
-			unconnectedCells = getUnconnectedCells();
-		}
+	void generate(CellGrid cells, MazeGenerator generator) {
+		maze = cells;
+		generator.generate(maze, random.split());
+		wallsChanged();
 	}
 
 	/**
-	 * Performs a random walk from the start coordinate to the end coordinate with no loops, stopping early if joining the maze.
+	 * Gets the cells of the maze, for the algorithms reading them directly.
 	 *
-	 * @param start The starting coordinate for the random walk.
-	 * @param end   The target coordinate for the random walk.
-	 * @return An ArrayList of coordinates representing the random walk path.
+	 * @return The cells of the maze.
 	 */
-	private ArrayList<Coordinate> randomWalk(Coordinate start, Coordinate end) {
-		ArrayList<Coordinate> path = new ArrayList<Coordinate>();
-		path.add(start);
-		Coordinate current = new Coordinate(start.x, start.y);
-		// While not joining the maze and not reaching the target
-		while (maze[current.x][current.y] == 0 && (current.x != end.x || current.y != end.y)) {
-			// Go in one random direction
-			int direction = (int) (Math.random() * 4);
-			if (direction == 0) { // Left
-				if (current.x > 0) {
-					current.x--;
-				}
-			} else if (direction == 1) { // Right
-				if (current.x < getWidth() - 1) {
-					current.x++;
-				}
-			} else if (direction == 2) { // Up
-				if (current.y > 0) {
-					current.y--;
-				}
-			} else { // Down
-				if (current.y < getHeight() - 1) {
-					current.y++;
-				}
-			}
-			// Detect cycles
-			for (int i = 0; i < path.size(); i++) {
-				Coordinate c = path.get(i);
-				if (c.x == current.x && c.y == current.y) { // If we've already been there
-					// Found a cycle, remove everything from this point
-					path.subList(i, path.size()).clear(); // Remove everything from index i to the end
-					break;
-				}
-			}
-			// Add the new cell to the path
-			path.add(new Coordinate(current.x, current.y));
-		}
-		return path;
+	CellGrid getCells() {
+		return maze;
 	}
-	
+
 	/**
-	 * Opens a path between two coordinates by removing walls in the maze.
+	 * Gets the walls of the maze as packed bitmaps, for passes over the whole maze.
 	 *
-	 * @param path A list of coordinates representing the path to be opened.
+	 * @return The wall bitmaps of the maze.
 	 */
-	private void openPath(ArrayList<Coordinate> path) {
-		for (int i = 0; i < path.size() - 1; i++) {
-			Coordinate c1 = path.get(i);
-			Coordinate c2 = path.get(i + 1);
-			if (c1.x == c2.x) {
-				if (c1.y > c2.y) {
-					maze[c1.x][c1.y] |= TOP;
-					maze[c2.x][c2.y] |= BOTTOM;
-				} else {
-					maze[c1.x][c1.y] |= BOTTOM;
-					maze[c2.x][c2.y] |= TOP;
-				}
-			} else {
-				if (c1.x > c2.x) {
-					maze[c1.x][c1.y] |= LEFT;
-					maze[c2.x][c2.y] |= RIGHT;
-				} else {
-					maze[c1.x][c1.y] |= RIGHT;
-					maze[c2.x][c2.y] |= LEFT;
-				}
-			}
+	public WallBitmaps getWallBitmaps() {
+		WallBitmaps walls = wallBitmaps;
+		if (walls == null) {
+			walls = new WallBitmaps(maze);
+			wallBitmaps = walls;
 		}
+		return walls;
 	}
 	
 	/**
-	 * Retrieves a list of unconnected cells within the maze.
+	 * Removes a non-border wall given its packed index (cell * 2 for the top wall, cell * 2 + 1 for the left wall).
 	 *
-	 * @return An ArrayList of Coordinate objects representing the unconnected cells.
+	 * @param wall The packed index of the wall.
 	 */
-	private ArrayList<Coordinate> getUnconnectedCells() {
-		ArrayList<Coordinate> unconnectedCells = new ArrayList<Coordinate>();
-		for (int i = 0; i < getWidth(); i++) {
-			for (int j = 0; j < getHeight(); j++) {
-				Coordinate c = new Coordinate(i, j);
-				if (maze[i][j] == 0) {
-					unconnectedCells.add(c);
-				}
-			}
+	private void removeNonBorderWall(long wall) {
+		long cell = wall >> 1;
+		int x = (int) (cell % getWidth());
+		int y = (int) (cell / getWidth());
+		if ((wall & 1) == 0) { // Top
+			maze.openPassage(x, y, TOP);
+			wallChanged(maze.index(x, y), maze.index(x, y - 1));
+		} else { // Left
+			maze.openPassage(x, y, LEFT);
+			wallChanged(maze.index(x, y), maze.index(x - 1, y));
 		}
-		return unconnectedCells;
 	}
-	
+
 	/**
-	 * Retrieves a list of non-border walls within the maze.
+	 * Makes the maze easier by removing a specified number of non-border walls.
+	 * The walls are chosen uniformly with selection sampling in a single pass over the walls,
+	 * so no list of walls is built.
 	 *
-	 * @return An ArrayList of Wall objects representing the non-border walls.
+	 * @param coefficient A coefficient specifying the percentage of walls to remove (0.0 to 1.0).
 	 */
-	private ArrayList<Wall> getNonBorderWalls() {
-		ArrayList<Wall> nonBorderWalls = new ArrayList<Wall>();
-		for (int i = 0; i < getWidth(); i++) {
-			for (int j = 0; j < getHeight(); j++) {
-				Coordinate c = new Coordinate(i, j);
+	private void makeMazeEasier(double coefficient) {
+		long nbWalls = getWallBitmaps().countInnerWalls(0, 0, getWidth(), getHeight());
+		long numWallsToRemove = (long) (coefficient * nbWalls);
+		long nbSeen = 0;
+		for (int j = 0; j < getHeight() && numWallsToRemove > 0; j++) {
+			for (int i = 0; i < getWidth() && numWallsToRemove > 0; i++) {
+				long cell = i + (long) j * getWidth();
+				// Each wall is removed with probability (walls left to remove) / (walls left to see)
 				if (j > 0 && hasTopWall(i, j)) {
-					nonBorderWalls.add(new Wall(c, TOP));
+					if (random.nextLong(nbWalls - nbSeen) < numWallsToRemove) {
+						removeNonBorderWall(cell * 2);
+						numWallsToRemove--;
+					}
+					nbSeen++;
 				}
-				if (i > 0 && hasLeftWall(i, j)) {
-					nonBorderWalls.add(new Wall(c, LEFT));
+				if (i > 0 && hasLeftWall(i, j) && numWallsToRemove > 0) {
+					if (random.nextLong(nbWalls - nbSeen) < numWallsToRemove) {
+						removeNonBorderWall(cell * 2 + 1);
+						numWallsToRemove--;
+					}
+					nbSeen++;
 				}
 			}
 		}
-		return nonBorderWalls;
-	}
-
-	private void makeMazeEasier(double coefficient) {
-		ArrayList<Wall> nonBorderWalls = getNonBorderWalls();
-		Collections.shuffle(nonBorderWalls);
-		int numWallsToRemove = (int) (coefficient * nonBorderWalls.size());
-		for (int i = 0; i < numWallsToRemove; i++) {
-			Wall w = nonBorderWalls.get(i);
-			Coordinate c = w.c;
-			if (w.location == TOP) {
-				maze[c.x][c.y] |= TOP;
-				maze[c.x][c.y - 1] |= BOTTOM;
-			} else { // Left
-				maze[c.x][c.y] |= LEFT;
-				maze[c.x - 1][c.y] |= RIGHT;
-			}
-		}
 	}
 	
 	/**
-	 * Makes the maze easier by removing a specified number of non-border walls.
+	 * Retrieves a list of the walls on the border of the maze.
 	 *
-	 * @param coefficient A coefficient specifying the percentage of walls to remove (0.0 to 1.0).
+	 * @return An ArrayList of Wall objects representing the border walls.
 	 */
 	private ArrayList<Wall> getBorderWalls() {
 		ArrayList<Wall> borderWalls = new ArrayList<Wall>();
@@ -486,20 +528,90 @@ public class Maze {
 	 * @return An ArrayList of Coordinate objects representing the valid moves from the given coordinate.
 	 */
 	public List<Coordinate> getValidMoves(Coordinate c) {
-		ArrayList<Coordinate> validMoves = new ArrayList<Coordinate>();
-		if (c.x > 0 && !hasLeftWall(c.x, c.y)) {
-			validMoves.add(new Coordinate(c.x - 1, c.y));
+		int[] moves = new int[4];
+		int nbMoves = getValidMoves(maze.index(c.x, c.y), moves);
+		ArrayList<Coordinate> validMoves = new ArrayList<Coordinate>(nbMoves);
+		for (int i = 0; i < nbMoves; i++) {
+			validMoves.add(new Coordinate(getCellX(moves[i]), getCellY(moves[i])));
 		}
-		if (c.x < getWidth() - 1 && !hasRightWall(c.x, c.y)) {
-			validMoves.add(new Coordinate(c.x + 1, c.y));
+		return validMoves;
+	}
+
+	/**
+	 * Retrieves the valid moves (adjacent cell ids) from a given cell of the maze, without allocating.
+	 *
+	 * @param cell  The id of the cell for which valid moves are to be determined.
+	 * @param moves The buffer receiving the ids of the adjacent cells, of length at least 4.
+	 * @return The number of valid moves written at the start of the buffer.
+	 */
+	public int getValidMoves(int cell, int[] moves) {
+		int nbMoves = 0;
+		int bits = maze.get(cell);
+		int x = getCellX(cell);
+		int y = getCellY(cell);
+		if (x > 0 && (bits & LEFT) != 0) {
+			moves[nbMoves++] = cell - 1;
 		}
-		if (c.y > 0 && !hasTopWall(c.x, c.y)) {
-			validMoves.add(new Coordinate(c.x, c.y - 1));
+		if (x < getWidth() - 1 && (bits & RIGHT) != 0) {
+			moves[nbMoves++] = cell + 1;
 		}
-		if (c.y < getHeight() - 1 && !hasBottomWall(c.x, c.y)) {
-			validMoves.add(new Coordinate(c.x, c.y + 1));
+		if (y > 0 && (bits & TOP) != 0) {
+			moves[nbMoves++] = cell - getWidth();
+		}
+		if (y < getHeight() - 1 && (bits & BOTTOM) != 0) {
+			moves[nbMoves++] = cell + getWidth();
+		}
+		return nbMoves;
+	}
+
+	/**
+	 * Gets the id of the cell at the specified coordinates, cells being numbered row by row.
+	 *
+	 * @param x The x-coordinate of the cell.
+	 * @param y The y-coordinate of the cell.
+	 * @return The id of the cell.
+	 */
+	public int getCellId(int x, int y) {
+		return maze.index(x, y);
+	}
+
+	/**
+	 * Gets the x-coordinate of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The x-coordinate of the cell.
+	 */
+	public int getCellX(int cell) {
+		return cell % getWidth();
+	}
+
+	/**
+	 * Gets the y-coordinate of a cell.
+	 *
+	 * @param cell The id of the cell.
+	 * @return The y-coordinate of the cell.
+	 */
+	public int getCellY(int cell) {
+		return cell / getWidth();
+	}
+
+	/**
+	 * Gets the cell adjacent to a cell through one of its sides.
+	 *
+	 * @param cell The id of the cell.
+	 * @param side The side of the cell (LEFT, BOTTOM, RIGHT, or TOP).
+	 * @return The id of the adjacent cell.
+	 */
+	public int getNeighbor(int cell, int side) {
+		if (side == LEFT) {
+			return cell - 1;
+		} else if (side == RIGHT) {
+			return cell + 1;
+		} else if (side == TOP) {
+			return cell - getWidth();
+		} else { // Bottom
+			return cell + getWidth();
 		}
-		return validMoves;
 	}
 	
 	/**
@@ -508,18 +620,11 @@ public class Maze {
 	 */
 	private void addExit() {
 		ArrayList<Wall> borderWalls = getBorderWalls();
-		int index = (int) (Math.random() * borderWalls.size());
+		int index = random.nextInt(borderWalls.size());
 		Wall w = borderWalls.get(index);
 		Coordinate c = w.c;
-		if (w.location == TOP) {
-			maze[c.x][c.y] |= TOP;
-		} else if (w.location == BOTTOM) {
-			maze[c.x][c.y] |= BOTTOM;
-		} else if (w.location == LEFT) {
-			maze[c.x][c.y] |= LEFT;
-		} else { // Right
-			maze[c.x][c.y] |= RIGHT;
-		}
+		maze.setBits(maze.index(c.x, c.y), w.location);
+		wallChanged(maze.index(c.x, c.y), -1);
 
 		exit = w;
 	}
@@ -533,18 +638,20 @@ public class Maze {
 		return exit;
 	}
 	
+	/**
+	 * Adds gems to the maze at distinct random free cells.
+	 *
+	 * @param nbGems The number of gems to add to the maze.
+	 */
 	private void addGems(int nbGems) {
 		gems = new Gem[nbGems];
-		int i = 0;
-		while (i < nbGems) {
-			int x = (int) (Math.random() * getWidth());
-			int y = (int) (Math.random() * getHeight());
-
-			if ((maze[x][y] & GEM) == 0) {
-				maze[x][y] |= GEM;
-				gems[i] = new Gem(new Coordinate(x, y), i);
-				i++;
-			}
+		int[] cells = placer.place(nbGems, Collections.emptySet());
+		for (int i = 0; i < nbGems; i++) {
+			int x = cells[i] % getWidth();
+			int y = cells[i] / getWidth();
+			maze.setBits(cells[i], GEM);
+			gems[i] = new Gem(new Coordinate(x, y), i);
+			entities.addGem(cells[i], i);
 		}
 	}
 	
@@ -563,12 +670,7 @@ public class Maze {
      * @return The number of uncollected gems.
      */
 	public int getNumOfGemsLeft() {
-		int num = 0;
-		for (Gem gem : gems) {
-			if (!gem.collected)
-				num++;
-		}
-		return num;
+		return entities.getNbGemsLeft();
 	}
 	
 	 /**
@@ -579,30 +681,28 @@ public class Maze {
      * @return True if a gem was successfully collected, false otherwise.
      */
 	public boolean collectGem(int x, int y) {
-		for (Gem gem : gems) {
-			if (gem.c.x == x && gem.c.y == y && !gem.collected) {
-				maze[x][y] &= ~GEM;
-				gem.collected = true;
-				character.nbOwnedGems++;
-				if (character.nbOwnedGems == gems.length) {
-					key.visible = true;
-				}
-				return true;
-			}
+		int cell = maze.index(x, y);
+		int gem = entities.removeGem(cell);
+		if (gem < 0) {
+			return false;
+		}
+		maze.clearBits(cell, GEM);
+		gems[gem].collected = true;
+		character.nbOwnedGems++;
+		if (character.nbOwnedGems == gems.length) {
+			key.visible = true;
 		}
-		return false;
+		return true;
 	}
 	
 	/**
 	 * Adds a key to the maze by placing it at a random location.
-	 * The key's location is determined randomly.
+	 * The key's location is a random free cell, not shared with a gem.
 	 */
 	private void addKey() {
-		int x = (int) (Math.random() * getWidth());
-		int y = (int) (Math.random() * getHeight());
-
-		key = new Key(new Coordinate(x, y));
-
+		int cell = placer.place(1, Collections.emptySet())[0];
+		key = new Key(new Coordinate(cell % getWidth(), cell / getWidth()));
+		entities.setKeyCell(cell);
 	}
 	
 	 /**
@@ -632,6 +732,7 @@ public class Maze {
 		Wall exit = getExit();
 
 		door = new Door(new Coordinate(exit.c.x, exit.c.y));
+		entities.setDoorCell(maze.index(exit.c.x, exit.c.y));
 	}
 	
 	 /**
@@ -650,6 +751,7 @@ public class Maze {
      */
 	public void setDoorOpen(boolean open) {
 		door.isOpened = open;
+		version++;
 		callCallback();
 	}
 	
@@ -657,28 +759,46 @@ public class Maze {
 	 * Adds police characters to the maze at random positions while respecting specified conditions.
 	 *
 	 * @param nbPolice The number of police characters to add to the maze.
+	 * @throws IllegalStateException If there are not enough cells satisfying the conditions.
 	 */
 	private void addPolice(int nbPolice) {
 		police = new Police[nbPolice]; // Create an array to store police characters
-		int i = 0;
-		while (i < nbPolice) {
-			int x = (int) (Math.random() * getWidth()); // Generate a random x-coordinate
-			int y = (int) (Math.random() * getHeight()); // Generate a random y-coordinate
-			Coordinate playerCoordinate = character.currentLocation;
+		Coordinate playerCoordinate = character.currentLocation;
 
-			int distanceToPlayer = Math.abs(character.currentLocation.x - x)
-					+ Math.abs(character.currentLocation.y - y);
-			
-			// Check conditions for placing police:
-			if ((maze[x][y] & GEM) == 0 && (playerCoordinate.x != x || playerCoordinate.y != y)
-					&& (door.c.x != x || door.c.y != y) && distanceToPlayer > MIN_DISTANCE_PLAYER_POLICE) {
-				police[i] = new Police(new Coordinate(x, y), POLICE_GO_TO_PLAYER - 5);
-				i++;
+		// Police cannot start on the door nor close to the player, gems and key cells are already taken
+		Set<Integer> excluded = new HashSet<Integer>();
+		excluded.add(door.c.x + door.c.y * getWidth());
+		for (int dx = -MIN_DISTANCE_PLAYER_POLICE; dx <= MIN_DISTANCE_PLAYER_POLICE; dx++) {
+			int x = playerCoordinate.x + dx;
+			if (x < 0 || x >= getWidth()) {
+				continue;
 			}
+			int maxDy = MIN_DISTANCE_PLAYER_POLICE - Math.abs(dx);
+			for (int y = Math.max(0, playerCoordinate.y - maxDy); y <= Math.min(getHeight() - 1, playerCoordinate.y + maxDy); y++) {
+				excluded.add(x + y * getWidth());
+			}
+		}
+
+		int[] cells = placer.place(nbPolice, excluded);
+		for (int i = 0; i < nbPolice; i++) {
+			Coordinate c = new Coordinate(cells[i] % getWidth(), cells[i] / getWidth());
+			police[i] = new Police(c, POLICE_GO_TO_PLAYER - 5, random.split());
+			entities.addPolice(cells[i]);
 		}
+	}
+	
+	/**
+	 * Starts the game: the police start moving every second and the sound detector starts listening.
+	 * The maze can be built ahead of time, nothing runs in the background before this method is called.
+	 */
+	public void start() {
+		soundDetector.start(200);
 
 		Maze maze = this;
 
+		// Created once, so that the police tick does not allocate a new task every second
+		Runnable callbackTask = () -> callCallback();
+
 		Runnable movePolice = new Runnable() {
 			public void run() {
 				// Calculate sound level and check if police should be scared
@@ -696,15 +816,13 @@ public class Maze {
 							p.moveToOrigin(maze);
 						}
 						p.moveTurn++;
-						// Check if a police character reaches the player's location
-						if (p.c.x == character.currentLocation.x && p.c.y == character.currentLocation.y) {
-							terminateGame(LOST);
-						}
+					}
+					// Check if a police character reaches the player's location
+					if (entities.hasPolice(getCellId(character.currentLocation.x, character.currentLocation.y))) {
+						terminateGame(LOST);
 					}
 					 // Update the game state and trigger callbacks
-					Platform.runLater(() -> {
-						callCallback();
-					});
+					Platform.runLater(callbackTask);
 				}
 			}
 		};
@@ -723,6 +841,107 @@ public class Maze {
 		return police;
 	}
 	
+	/**
+	 * Gets the algorithm answering the path queries of the maze and of its police.
+	 *
+	 * @return The path finder of the maze.
+	 */
+	public PathFinder getPathFinder() {
+		return pathFinder;
+	}
+
+	/**
+	 * Sets the algorithm answering the path queries of the maze and of its police. By default, queries
+	 * are answered from a distance field towards their target, shared by all the police chasing the player
+	 * and repaired incrementally as the player moves.
+	 *
+	 * @param pathFinder The path finder, bound to this maze.
+	 */
+	public void setPathFinder(PathFinder pathFinder) {
+		this.pathFinder = pathFinder;
+	}
+
+	/**
+	 * Gets the memory used by the routes precomputed for the police: the tables of the path finder, the
+	 * path cache, and the way back to the origin of each policeman.
+	 *
+	 * @return The size of the route tables in bytes.
+	 */
+	public long getRouteMemoryBytes() {
+		long bytes = pathFinder.getMemoryBytes() + pathCache.getBytes();
+		for (Police p : police) {
+			bytes += p.getRouteMemoryBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Gets the cache of the path queries of the maze and of its police, whose counters tell how well it
+	 * is sized.
+	 *
+	 * @return The path cache of the maze.
+	 */
+	public PathCache getPathCache() {
+		return pathCache;
+	}
+
+	/**
+	 * Gets the number of times the walls of the maze or the door changed. Tables built from the walls
+	 * are stale once it differs from the version they were built with.
+	 *
+	 * @return The version of the walls.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the cells whose walls changed since a version, for the tables built from the walls to update only
+	 * what these cells touch. The door does not change any cell.
+	 *
+	 * @param sinceVersion The version the table was built with.
+	 * @return The ids of the cells that changed, possibly repeated, or null if too many cells changed since
+	 *         this version to be listed and the table must be built again.
+	 */
+	public int[] getChangedCells(long sinceVersion) {
+		return wallChanges.getChangedCells(sinceVersion);
+	}
+
+	/**
+	 * Records a change of all the walls, dropping the tables built from them.
+	 */
+	private void wallsChanged() {
+		wallChanges.reset(version + 1);
+		version++;
+		wallBitmaps = null;
+	}
+
+	/**
+	 * Records a change of the walls of a cell, and of its neighbor on the other side of the wall, dropping the
+	 * tables built from them. The change is logged before the version moves, so a table that sees the new
+	 * version also finds the cells in the log.
+	 *
+	 * @param cell     The id of the cell.
+	 * @param neighbor The id of the neighbor, or -1 for a wall on the border of the maze.
+	 */
+	private void wallChanged(int cell, int neighbor) {
+		wallChanges.record(version + 1, cell);
+		if (neighbor >= 0) {
+			wallChanges.record(version + 1, neighbor);
+		}
+		version++;
+		wallBitmaps = null;
+	}
+
+	/**
+	 * Gets the index of the cells occupied by the gems, police, key, and door.
+	 *
+	 * @return The entity index of the maze.
+	 */
+	public EntityIndex getEntityIndex() {
+		return entities;
+	}
+
 	 /**
      * Gets the character object in the maze.
      *
@@ -732,6 +951,17 @@ public class Maze {
 		return character;
 	}
 	
+	/**
+	 * Replaces the main character of a maze built ahead of time. The new character starts
+	 * at the location of the one the maze was built with.
+	 *
+	 * @param character The new main character in the maze.
+	 */
+	void setCharacter(Character character) {
+		character.currentLocation = new Coordinate(this.character.currentLocation.x, this.character.currentLocation.y);
+		this.character = character;
+	}
+	
 	 /**
      * Moves the character one step up if there is no top wall.
      *
@@ -799,7 +1029,7 @@ public class Maze {
 		}
 
 		if (character.currentLocation.x == exit.c.x && character.currentLocation.y == exit.c.y) {
-			if (character.currentLocation.x == (maze.length - 1))
+			if (character.currentLocation.x == (getWidth() - 1))
 				return false;
 		}
 
@@ -819,13 +1049,12 @@ public class Maze {
 		assert dy == 0 || dy == 1 || dy == -1;
 		character.currentLocation.x += dx;
 		character.currentLocation.y += dy;
+		int cell = maze.index(character.currentLocation.x, character.currentLocation.y);
 		collectGem(character.currentLocation.x, character.currentLocation.y);
-		for (Police p : police) {
-			if (p.c.x == character.currentLocation.x && p.c.y == character.currentLocation.y) {
-				terminateGame(LOST);
-			}
+		if (entities.hasPolice(cell)) {
+			terminateGame(LOST);
 		}
-		if (door.isOpened && character.currentLocation.x == door.c.x && character.currentLocation.y == door.c.y) {
+		if (door.isOpened && entities.isDoorAt(cell)) {
 			terminateGame(WON);
 		}
 		callCallback();
@@ -839,184 +1068,54 @@ public class Maze {
 	private void terminateGame(int state) {
 		gameState = state;
 		policeActive = false;
-		policeAIExecutor.shutdownNow();
+		if (policeAIExecutor != null) {
+			policeAIExecutor.shutdownNow();
+		}
 		soundDetector.stop();
 		callCallback();
 	}
 	
-	/**
-	 * Sets the "visited left" flag for the specified cell in the maze.
-	 * This flag is used for maze pathfinding and indicates that the left side of the cell has been visited.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 */
-	private void setVisitedLeft(int x, int y) {
-		maze[x][y] |= VISITED_LEFT;
-	}
-	
-	/**
-	 * Sets the "visited bottom" flag for the specified cell in the maze.
-	 * This flag is used for maze pathfinding and indicates that the left side of the cell has been visited.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 */
-	private void setVisitedBottom(int x, int y) {
-		maze[x][y] |= VISITED_BOTTOM;
-	}
-	
-	/**
-	 * Sets the "visited right" flag for the specified cell in the maze.
-	 * This flag is used for maze pathfinding and indicates that the left side of the cell has been visited.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 */
-	private void setVisitedRight(int x, int y) {
-		maze[x][y] |= VISITED_RIGHT;
-	}
-	
-	/**
-	 * Sets the "visited top" flag for the specified cell in the maze.
-	 * This flag is used for maze pathfinding and indicates that the left side of the cell has been visited.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 */
-	private void setVisitedTop(int x, int y) {
-		maze[x][y] |= VISITED_TOP;
-	}
-	
-	/**
-	 * Clears the "visited" flags for all sides of the specified cell in the maze.
-	 * This method resets the visited status of a cell for maze pathfinding.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 */
-	private void setUnvisited(int x, int y) {
-		maze[x][y] &= ~(VISITED_LEFT | VISITED_BOTTOM | VISITED_RIGHT | VISITED_TOP);
-	}
-	
-	/**
-	 * Checks if the specified cell in the maze has been visited.
-	 * This method returns true if any side of the cell has been visited; otherwise, it returns false.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 * @return True if the cell has been visited, false otherwise.
-	 */
-	private boolean isVisited(int x, int y) {
-		return (maze[x][y] & (VISITED_LEFT | VISITED_BOTTOM | VISITED_RIGHT | VISITED_TOP)) != 0;
-	}
-
-	/**
-	 * Checks if the left side of the specified cell in the maze has been visited.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 * @return True if the left side of the cell has been visited, false otherwise.
-	 */
-	private boolean isVisitedLeft(int x, int y) {
-		return (maze[x][y] & VISITED_LEFT) != 0;
-	}
-	
-	/**
-	 * Checks if the bottom side of the specified cell in the maze has been visited.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 * @return True if the bottom side of the cell has been visited, false otherwise.
-	 */
-	private boolean isVisitedBottom(int x, int y) {
-		return (maze[x][y] & VISITED_BOTTOM) != 0;
-	}
-	
-	/**
-	 * Checks if the right side of the specified cell in the maze has been visited.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 * @return True if the right side of the cell has been visited, false otherwise.
-	 */
-	private boolean isVisitedRight(int x, int y) {
-		return (maze[x][y] & VISITED_RIGHT) != 0;
-	}
-	
-	/**
-	 * Checks if the top side of the specified cell in the maze has been visited.
-	 *
-	 * @param x The x-coordinate of the cell.
-	 * @param y The y-coordinate of the cell.
-	 * @return True if the top side of the cell has been visited, false otherwise.
-	 */
-	private boolean isVisitedTop(int x, int y) {
-		return (maze[x][y] & VISITED_TOP) != 0;
-	}
-	
 	 /**
      * Finds the shortest path from the specified start coordinate to the end coordinate in the maze.
      *
      * @param start The starting coordinate.
      * @param end   The ending coordinate.
-     * @return A list of coordinates representing the shortest path.
+     * @return A list of coordinates representing the shortest path, empty if the end cannot be reached.
      */
 	public List<Coordinate> shortestPath(Coordinate start, Coordinate end) {
-		// Reset visited cells
-		for (int i = 0; i < getWidth(); i++) {
-			for (int j = 0; j < getHeight(); j++) {
-				setUnvisited(i, j);
-			}
-		}
-
-		// Using BFS
-		ArrayList<Coordinate> queue = new ArrayList<Coordinate>();
-		queue.add(start);
-		while (queue.size() > 0) {
-			Coordinate current = queue.remove(0);
-			if (current.x == end.x && current.y == end.y) {
-				break;
-			}
-			// Add neighbors to the queue
-			if (current.x > 0 && !hasLeftWall(current.x, current.y) && !isVisited(current.x - 1, current.y)) {
-				queue.add(new Coordinate(current.x - 1, current.y));
-				setVisitedRight(current.x - 1, current.y);
-			}
-			if (current.x < getWidth() - 1 && !hasRightWall(current.x, current.y)
-					&& !isVisited(current.x + 1, current.y)) {
-				queue.add(new Coordinate(current.x + 1, current.y));
-				setVisitedLeft(current.x + 1, current.y);
-			}
-			if (current.y > 0 && !hasTopWall(current.x, current.y) && !isVisited(current.x, current.y - 1)) {
-				queue.add(new Coordinate(current.x, current.y - 1));
-				setVisitedBottom(current.x, current.y - 1);
-			}
-			if (current.y < getHeight() - 1 && !hasBottomWall(current.x, current.y)
-					&& !isVisited(current.x, current.y + 1)) {
-				queue.add(new Coordinate(current.x, current.y + 1));
-				setVisitedTop(current.x, current.y + 1);
-			}
+		// Coordinates are only created for the returned list
+		int[] cells = pathCache.findPath(pathFinder, maze.index(start.x, start.y), maze.index(end.x, end.y));
+		List<Coordinate> path = new ArrayList<Coordinate>(cells.length);
+		for (int cell : cells) {
+			path.add(new Coordinate(getCellX(cell), getCellY(cell)));
 		}
+		return path;
+	}
 
-		// Reconstruct the path
-		List<Coordinate> path = new ArrayList<Coordinate>();
-		Coordinate current = end;
-		while (current.x != start.x || current.y != start.y) {
-			path.add(current);
-			if (isVisitedLeft(current.x, current.y)) {
-				current = new Coordinate(current.x - 1, current.y);
-			} else if (isVisitedRight(current.x, current.y)) {
-				current = new Coordinate(current.x + 1, current.y);
-			} else if (isVisitedTop(current.x, current.y)) {
-				current = new Coordinate(current.x, current.y - 1);
-			} else if (isVisitedBottom(current.x, current.y)) {
-				current = new Coordinate(current.x, current.y + 1);
-			}
-		}
+	/**
+	 * Computes the number of steps from a cell to every cell of the maze, for whole-maze measures such as
+	 * the distances to the exit. The search runs over the wall bitmaps, 64 cells per operation.
+	 *
+	 * @param cell The id of the cell to start from.
+	 * @return The distance of each cell by id, -1 for the cells that cannot be reached.
+	 */
+	public int[] getDistancesFrom(int cell) {
+		int[] distances = new int[getWidth() * getHeight()];
+		new BitParallelBfs(getWallBitmaps()).computeDistances(cell, distances);
+		return distances;
+	}
 
-		Collections.reverse(path);
-		return path;
+	/**
+	 * Finds the next cell on a shortest path between two cells of the maze, without allocating once the path
+	 * cache has grown to its working size.
+	 *
+	 * @param from The id of the cell to move from.
+	 * @param to   The id of the cell to move to.
+	 * @return The id of the next cell towards the destination, or the start cell if the destination
+	 *         is the start cell or cannot be reached.
+	 */
+	public int nextStep(int from, int to) {
+		return pathCache.nextStep(pathFinder, from, to);
 	}
 
 	 /**
@@ -1025,40 +1124,24 @@ public class Maze {
      * @return A string representation of the maze.
      */
 	public String toString() {
-		String s = "";
-		for (int j = 0; j < getHeight(); j++) {
-			// Top walls
-			for (int i = 0; i < getWidth(); i++) {
-				if (hasTopWall(i, j)) {
-					s += "+---";
-				} else {
-					s += "+   ";
-				}
-			}
-			s += "+\n";
-			// Left walls
+		WallLayer horizontal = getWallBitmaps().getHorizontal();
+		WallLayer vertical = getWallBitmaps().getVertical();
+		StringBuilder s = new StringBuilder((getWidth() * 4 + 2) * (getHeight() * 2 + 1));
+		for (int j = 0; j <= getHeight(); j++) {
+			// Top walls, or bottom walls after the last row
 			for (int i = 0; i < getWidth(); i++) {
-				if (hasLeftWall(i, j)) {
-					s += "|   ";
-				} else {
-					s += "    ";
-				}
+				s.append(horizontal.hasWall(j, i) ? "+---" : "+   ");
 			}
-			if (hasRightWall(getWidth() - 1, j)) {
-				s += "|\n";
-			} else {
-				s += " \n";
+			s.append("+\n");
+			if (j == getHeight()) {
+				break;
 			}
-		}
-		// Bottom walls
-		for (int i = 0; i < getWidth(); i++) {
-			if (hasBottomWall(i, getHeight() - 1)) {
-				s += "+---";
-			} else {
-				s += "+   ";
+			// Left walls, and the right wall of the last column
+			for (int i = 0; i < getWidth(); i++) {
+				s.append(vertical.hasWall(i, j) ? "|   " : "    ");
 			}
+			s.append(vertical.hasWall(getWidth(), j) ? "|\n" : " \n");
 		}
-		s += "+\n";
-		return s;
+		return s.toString();
 	}
 }
@@ -0,0 +1,19 @@
+import java.util.SplittableRandom;
+
+/**
+ * The MazeGenerator interface represents an algorithm that carves a perfect maze
+ * (a spanning tree of the cells) into a maze grid (model class).
+ */
+public interface MazeGenerator {
+	/**
+	 * Carves a perfect maze into the given grid. All the cells start with their four walls,
+	 * and the generator opens passages with CellGrid.openPassage.
+	 *
+	 * Generators must only draw random numbers from the given generator, so that the same seed
+	 * always carves the same maze.
+	 *
+	 * @param maze The cells of the maze.
+	 * @param random The source of randomness of the generation.
+	 */
+	void generate(CellGrid maze, SplittableRandom random);
+}
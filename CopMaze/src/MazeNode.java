@@ -193,8 +193,9 @@ public class MazeNode extends Pane {
         policeNodes = new PoliceNode[police.length];
         for (int i = 0; i < police.length; i++) {
             policeNodes[i] = new PoliceNode((int)cellContentPx, (int)cellContentPx);
-            policeNodes[i].setX(police[i].c.x * cellSizePx + lineWidthPx);
-            policeNodes[i].setY(police[i].c.y * cellSizePx + lineWidthPx);
+            Coordinate position = police[i].c; // Read once, the police thread replaces it
+            policeNodes[i].setX(position.x * cellSizePx + lineWidthPx);
+            policeNodes[i].setY(position.y * cellSizePx + lineWidthPx);
             mazeContentPane.getChildren().add(policeNodes[i]);
         }
     }
@@ -259,8 +260,9 @@ public class MazeNode extends Pane {
     private void updatePoliceNodes() {
         Police[] police = maze.getPolice();
         for (int i = 0; i < police.length; i++) {
-            policeNodes[i].setX(police[i].c.x * cellSizePx + lineWidthPx);
-            policeNodes[i].setY(police[i].c.y * cellSizePx + lineWidthPx);
+            Coordinate position = police[i].c; // Read once, the police thread replaces it
+            policeNodes[i].setX(position.x * cellSizePx + lineWidthPx);
+            policeNodes[i].setY(position.y * cellSizePx + lineWidthPx);
         }
 
     }
@@ -373,24 +375,23 @@ public class MazeNode extends Pane {
 		gc.fillRect(0, 0, cellSizePx*maze.getWidth() + lineWidthPx, cellSizePx*maze.getHeight() + lineWidthPx);
 		gc.setFill(Color.BLACK);
 
-		for (int y = 0; y < maze.getHeight(); y++) {
-			for (int x = 0; x < maze.getWidth(); x++) {
-				if (maze.hasTopWall(x, y)) {
-                    gc.fillRect(x * cellSizePx, y * cellSizePx, cellSizePx, lineWidthPx);
-				}
-                if (maze.hasLeftWall(x, y)) {
-                    gc.fillRect(x * cellSizePx, y * cellSizePx, lineWidthPx, cellSizePx);
-                }
-                if (x == maze.getWidth() - 1) {
-                    if (maze.hasRightWall(x, y)) {
-                        gc.fillRect((x + 1) * cellSizePx, y * cellSizePx, lineWidthPx, cellSizePx);
-                    }
-                }
-                if (y == maze.getHeight() - 1) {
-                    if (maze.hasBottomWall(x, y)) {
-                        gc.fillRect(x * cellSizePx, (y + 1) * cellSizePx, cellSizePx, lineWidthPx);
-                    }
-                }
+		// Each run of adjacent walls along a line is drawn as a single rectangle
+		WallLayer horizontal = maze.getWallBitmaps().getHorizontal();
+		for (int y = 0; y < horizontal.getNbLines(); y++) {
+			int x = horizontal.nextWall(y, 0);
+			while (x < horizontal.getLineLength()) {
+				int end = horizontal.nextOpening(y, x);
+				gc.fillRect(x * cellSizePx, y * cellSizePx, (end - x) * cellSizePx, lineWidthPx);
+				x = horizontal.nextWall(y, end);
+			}
+		}
+		WallLayer vertical = maze.getWallBitmaps().getVertical();
+		for (int x = 0; x < vertical.getNbLines(); x++) {
+			int y = vertical.nextWall(x, 0);
+			while (y < vertical.getLineLength()) {
+				int end = vertical.nextOpening(x, y);
+				gc.fillRect(x * cellSizePx, y * cellSizePx, lineWidthPx, (end - y) * cellSizePx);
+				y = vertical.nextWall(x, end);
 			}
 		}
 	}
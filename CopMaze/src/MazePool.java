@@ -0,0 +1,146 @@
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The MazePool class generates mazes for each difficulty level on background threads ahead of time,
+ * so that starting a level only takes a ready maze (model class).
+ * Each level keeps up to a configurable number of mazes ready or being generated. A maze whose generation
+ * failed is reported to the caller that takes it.
+ */
+public class MazePool {
+	/**
+	 * The number of mazes kept ready for each difficulty level.
+	 */
+	private int nbReadyPerLevel;
+
+	/**
+	 * The threads generating the mazes.
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * The mazes ready or being generated for each difficulty level, oldest first.
+	 */
+	private Map<DifficultyLevel, BlockingQueue<Future<Maze>>> readyMazes =
+			new ConcurrentHashMap<DifficultyLevel, BlockingQueue<Future<Maze>>>();
+
+	/**
+	 * Creates a pool generating mazes on as many daemon threads as there are spare processors.
+	 *
+	 * @param nbReadyPerLevel The number of mazes kept ready for each difficulty level.
+	 */
+	public MazePool(int nbReadyPerLevel) {
+		this(nbReadyPerLevel, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+	}
+
+	/**
+	 * Creates a pool generating mazes on daemon threads.
+	 *
+	 * @param nbReadyPerLevel The number of mazes kept ready for each difficulty level.
+	 * @param nbThreads The number of threads generating the mazes.
+	 */
+	public MazePool(int nbReadyPerLevel, int nbThreads) {
+		this.nbReadyPerLevel = nbReadyPerLevel;
+		this.executor = Executors.newFixedThreadPool(nbThreads, runnable -> {
+			Thread thread = new Thread(runnable, "maze-pool");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+	}
+
+	/**
+	 * Starts generating mazes for a difficulty level until the pool holds enough of them.
+	 *
+	 * @param level The difficulty level.
+	 */
+	public void fill(DifficultyLevel level) {
+		BlockingQueue<Future<Maze>> ready = getReadyMazes(level);
+		synchronized (ready) {
+			while (ready.size() < nbReadyPerLevel) {
+				ready.add(executor.submit(() -> build(level)));
+			}
+		}
+	}
+
+	/**
+	 * Takes the oldest maze of a difficulty level for a character, and starts generating a replacement.
+	 * If the maze is still being generated, waits for it; if the pool holds none, one is built on the
+	 * calling thread. The returned maze is not started.
+	 *
+	 * @param level The difficulty level.
+	 * @param character The main character of the maze.
+	 * @return A maze of the difficulty level.
+	 * @throws IllegalStateException If the generation of the maze failed or the wait was interrupted.
+	 */
+	public Maze take(DifficultyLevel level, Character character) {
+		Future<Maze> pooled = getReadyMazes(level).poll();
+		fill(level);
+		Maze maze;
+		if (pooled == null) {
+			maze = build(level);
+		} else {
+			try {
+				maze = pooled.get();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("The generation of a " + level.name + " maze failed", e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for a " + level.name + " maze", e);
+			}
+		}
+		maze.setCharacter(character);
+		return maze;
+	}
+
+	/**
+	 * Gets the number of mazes of a difficulty level whose generation is done.
+	 *
+	 * @param level The difficulty level.
+	 * @return The number of ready mazes.
+	 */
+	public int getNbReady(DifficultyLevel level) {
+		int nbReady = 0;
+		for (Future<Maze> pooled : getReadyMazes(level)) {
+			if (pooled.isDone()) {
+				nbReady++;
+			}
+		}
+		return nbReady;
+	}
+
+	/**
+	 * Stops the generation threads, the ready mazes are dropped.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+		readyMazes.clear();
+	}
+
+	/**
+	 * Builds a maze of a difficulty level. The character is a placeholder, replaced when the maze is taken.
+	 *
+	 * @param level The difficulty level.
+	 * @return The new maze.
+	 */
+	private Maze build(DifficultyLevel level) {
+		return new Maze(level.mazeWidth, level.mazeHeight, level.easiness, new Character("", 0), level.nbGems,
+				level.nbPolice, level.generator);
+	}
+
+	/**
+	 * Gets the queue of mazes ready or being generated for a difficulty level.
+	 *
+	 * @param level The difficulty level.
+	 * @return The queue of the mazes.
+	 */
+	private BlockingQueue<Future<Maze>> getReadyMazes(DifficultyLevel level) {
+		return readyMazes.computeIfAbsent(level, l -> new LinkedBlockingQueue<Future<Maze>>());
+	}
+}
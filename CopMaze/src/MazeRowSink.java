@@ -0,0 +1,14 @@
+/**
+ * The MazeRowSink interface represents a consumer of the rows of a maze produced one at a time
+ * by a streaming generator, such as a file writer or a renderer (model class).
+ */
+public interface MazeRowSink {
+	/**
+	 * Receives a complete row of the maze. Rows are produced from top to bottom, and the array
+	 * is reused for the next row, so it must be copied if it is kept.
+	 *
+	 * @param y The index of the row.
+	 * @param row The cells of the row, indexed by x, using Maze.LEFT/BOTTOM/RIGHT/TOP as open passages.
+	 */
+	void acceptRow(int y, int[] row);
+}
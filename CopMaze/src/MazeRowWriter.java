@@ -0,0 +1,54 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * This class writes the rows of a streamed maze to an output stream (model class).
+ * The stream starts with the width and the height of the maze as two ints, followed by
+ * one byte per cell, row by row, holding the LEFT, BOTTOM, RIGHT and TOP bits of the cell.
+ */
+public class MazeRowWriter implements MazeRowSink {
+	/**
+	 * The stream the maze is written to.
+	 */
+	private DataOutputStream out;
+
+	/**
+	 * The buffer holding the bytes of a row.
+	 */
+	private byte[] buffer;
+
+	/**
+	 * Creates a writer for a maze of the specified dimensions and writes the header.
+	 *
+	 * @param out The stream the maze is written to, preferably buffered.
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 * @throws IOException If the header cannot be written.
+	 */
+	public MazeRowWriter(OutputStream out, int width, int height) throws IOException {
+		this.out = new DataOutputStream(out);
+		this.buffer = new byte[width];
+		this.out.writeInt(width);
+		this.out.writeInt(height);
+	}
+
+	/**
+	 * Writes a row of the maze.
+	 *
+	 * @param y The index of the row.
+	 * @param row The cells of the row, indexed by x.
+	 */
+	@Override
+	public void acceptRow(int y, int[] row) {
+		for (int x = 0; x < row.length; x++) {
+			buffer[x] = (byte) row[x];
+		}
+		try {
+			out.write(buffer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The OraclePathFinder class answers path queries from the distance oracle of a maze (model class), each step
+ * being found without any search. The oracle is built on the first query, and again when the walls change.
+ * When it is not exact, because too many walls were removed for its hub labels to fit, queries are answered
+ * by breadth-first searches instead.
+ */
+public class OraclePathFinder implements PathFinder {
+	/**
+	 * The maze to search.
+	 */
+	private Maze maze;
+
+	/**
+	 * The distance oracle of the maze, null until the first query.
+	 */
+	private volatile DistanceOracle oracle;
+
+	/**
+	 * The path finder used when the oracle is not exact.
+	 */
+	private BfsPathFinder fallback;
+
+	/**
+	 * The number of cells whose distance was looked up by all the queries.
+	 */
+	private LongAdder nbExpanded = new LongAdder();
+
+	/**
+	 * Creates an oracle path finder for a maze.
+	 *
+	 * @param maze The maze to search.
+	 */
+	public OraclePathFinder(Maze maze) {
+		this.maze = maze;
+		fallback = new BfsPathFinder(maze);
+	}
+
+	/**
+	 * Gets the distance oracle of the maze, building it on the first call and after the walls change.
+	 *
+	 * @return The distance oracle.
+	 */
+	public DistanceOracle getOracle() {
+		DistanceOracle o = oracle;
+		if (o == null || o.getVersion() != maze.getVersion()) {
+			synchronized (this) {
+				o = oracle;
+				if (o == null || o.getVersion() != maze.getVersion()) {
+					o = new DistanceOracle(maze);
+					oracle = o;
+				}
+			}
+		}
+		return o;
+	}
+
+	@Override
+	public int[] findPath(int from, int to) {
+		DistanceOracle o = getOracle();
+		if (!o.isExact()) {
+			return fallback.findPath(from, to);
+		}
+		int[] path = new int[o.getDistance(from, to)];
+		int cell = from;
+		for (int i = 0; i < path.length; i++) {
+			cell = o.nextStep(cell, to);
+			path[i] = cell;
+		}
+		nbExpanded.add(path.length);
+		return path;
+	}
+
+	@Override
+	public int nextStep(int from, int to) {
+		DistanceOracle o = getOracle();
+		if (!o.isExact()) {
+			return fallback.nextStep(from, to);
+		}
+		nbExpanded.increment();
+		return o.nextStep(from, to);
+	}
+
+	@Override
+	public long getNbExpanded() {
+		return nbExpanded.sum() + fallback.getNbExpanded();
+	}
+
+	@Override
+	public long getMemoryBytes() {
+		DistanceOracle o = oracle;
+		return o == null ? 0 : o.getMemoryBytes();
+	}
+}
@@ -0,0 +1,232 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class generates large mazes in parallel (model class). The grid is split into square tiles,
+ * a perfect maze is carved into each tile on a fork-join pool, and the tiles are then stitched
+ * together by opening one passage per edge of a random spanning tree of the tile graph,
+ * so the result is still a perfect maze.
+ */
+public class ParallelTiledGenerator implements MazeGenerator {
+	/**
+	 * The default size of the side of a tile, in cells.
+	 */
+	static final int DEFAULT_TILE_SIZE = 256;
+
+	/**
+	 * The algorithm used to carve each tile.
+	 */
+	private MazeGenerator tileGenerator;
+
+	/**
+	 * The size of the side of a tile, in cells.
+	 */
+	private int tileSize;
+
+	/**
+	 * The pool running the generation of the tiles.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Creates a parallel generator carving the tiles with the recursive backtracker on the common pool.
+	 */
+	public ParallelTiledGenerator() {
+		this(new BacktrackerGenerator(), DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a parallel generator.
+	 *
+	 * @param tileGenerator The algorithm used to carve each tile.
+	 * @param tileSize The size of the side of a tile, in cells.
+	 * @param pool The pool running the generation of the tiles.
+	 */
+	public ParallelTiledGenerator(MazeGenerator tileGenerator, int tileSize, ForkJoinPool pool) {
+		assert tileSize > 0;
+		this.tileGenerator = tileGenerator;
+		this.tileSize = tileSize;
+		this.pool = pool;
+	}
+
+	/**
+	 * Carves a perfect maze into the given grid, one tile per task.
+	 *
+	 * Each task draws from its own stream split from the given generator, and the streams are split
+	 * along the fixed shape of the task tree, so the maze only depends on the seed and not on the scheduling.
+	 *
+	 * @param maze The cells of the maze.
+	 * @param random The source of randomness of the generation.
+	 */
+	@Override
+	public void generate(CellGrid maze, SplittableRandom random) {
+		int n = maze.getWidth();
+		int m = maze.getHeight();
+		int nbTilesX = (n + tileSize - 1) / tileSize;
+		int nbTilesY = (m + tileSize - 1) / tileSize;
+		pool.invoke(new TileGenerationTask(maze, tileGenerator, tileSize, nbTilesX, 0, nbTilesX * nbTilesY,
+				random.split()));
+		stitchTiles(maze, nbTilesX, nbTilesY, random);
+	}
+
+	/**
+	 * Connects the tiles along a random spanning tree of the tile graph, built with Kruskal's algorithm.
+	 * Each edge of the tree opens one passage at a random position of the border between the two tiles.
+	 *
+	 * @param maze The cells of the maze.
+	 * @param nbTilesX The number of tiles along the x-axis.
+	 * @param nbTilesY The number of tiles along the y-axis.
+	 * @param random The source of randomness of the stitching.
+	 */
+	private void stitchTiles(CellGrid maze, int nbTilesX, int nbTilesY, SplittableRandom random) {
+		int n = maze.getWidth();
+		int m = maze.getHeight();
+		int nbTiles = nbTilesX * nbTilesY;
+		// Tile ids are tx + ty * nbTilesX, edge ids are tile * 2 for the right border and tile * 2 + 1 for the bottom one
+		int[] edges = new int[2 * nbTiles];
+		int nbEdges = 0;
+		for (int tile = 0; tile < nbTiles; tile++) {
+			if (tile % nbTilesX < nbTilesX - 1) {
+				edges[nbEdges++] = tile * 2;
+			}
+			if (tile / nbTilesX < nbTilesY - 1) {
+				edges[nbEdges++] = tile * 2 + 1;
+			}
+		}
+		int[] parents = new int[nbTiles];
+		for (int i = 0; i < nbTiles; i++) {
+			parents[i] = i;
+		}
+
+		for (int i = 0; i < nbEdges; i++) {
+			int j = i + random.nextInt(nbEdges - i);
+			int edge = edges[j];
+			edges[j] = edges[i];
+			edges[i] = edge;
+
+			int tile = edge >> 1;
+			boolean right = (edge & 1) == 0;
+			int root = find(parents, tile);
+			int otherRoot = find(parents, right ? tile + 1 : tile + nbTilesX);
+			if (root == otherRoot) {
+				continue;
+			}
+			parents[otherRoot] = root;
+
+			int x0 = (tile % nbTilesX) * tileSize;
+			int y0 = (tile / nbTilesX) * tileSize;
+			if (right) { // Passage across the vertical border on the right of the tile
+				int y = y0 + random.nextInt(Math.min(y0 + tileSize, m) - y0);
+				maze.openPassage(x0 + tileSize - 1, y, Maze.RIGHT);
+			} else { // Passage across the horizontal border at the bottom of the tile
+				int x = x0 + random.nextInt(Math.min(x0 + tileSize, n) - x0);
+				maze.openPassage(x, y0 + tileSize - 1, Maze.BOTTOM);
+			}
+		}
+	}
+
+	/**
+	 * Finds the representative of the set of a tile, halving the path on the way.
+	 *
+	 * @param parents The parent of each tile in the union-find structure.
+	 * @param tile The id of the tile.
+	 * @return The id of the representative tile.
+	 */
+	private static int find(int[] parents, int tile) {
+		while (parents[tile] != tile) {
+			parents[tile] = parents[parents[tile]];
+			tile = parents[tile];
+		}
+		return tile;
+	}
+}
+
+/**
+ * The TileGenerationTask class carves a range of tiles of a maze, splitting the range in halves
+ * until a single tile is left (model class).
+ */
+class TileGenerationTask extends RecursiveAction {
+	/**
+	 * The version of the serialized form of the task.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The cells of the whole maze.
+	 */
+	private CellGrid maze;
+
+	/**
+	 * The algorithm used to carve each tile.
+	 */
+	private MazeGenerator tileGenerator;
+
+	/**
+	 * The size of the side of a tile, in cells.
+	 */
+	private int tileSize;
+
+	/**
+	 * The number of tiles along the x-axis.
+	 */
+	private int nbTilesX;
+
+	/**
+	 * The first tile of the range (inclusive).
+	 */
+	private int from;
+
+	/**
+	 * The last tile of the range (exclusive).
+	 */
+	private int to;
+
+	/**
+	 * The source of randomness of the tiles of the range.
+	 */
+	private SplittableRandom random;
+
+	/**
+	 * Creates a task carving the tiles from (inclusive) and to (exclusive).
+	 *
+	 * @param maze The cells of the whole maze.
+	 * @param tileGenerator The algorithm used to carve each tile.
+	 * @param tileSize The size of the side of a tile, in cells.
+	 * @param nbTilesX The number of tiles along the x-axis.
+	 * @param from The first tile of the range (inclusive).
+	 * @param to The last tile of the range (exclusive).
+	 * @param random The source of randomness of the tiles of the range.
+	 */
+	TileGenerationTask(CellGrid maze, MazeGenerator tileGenerator, int tileSize, int nbTilesX, int from, int to,
+			SplittableRandom random) {
+		this.maze = maze;
+		this.tileGenerator = tileGenerator;
+		this.tileSize = tileSize;
+		this.nbTilesX = nbTilesX;
+		this.from = from;
+		this.to = to;
+		this.random = random;
+	}
+
+	/**
+	 * Carves the tiles of the range, forking the second half of the range if there are several.
+	 * The first half gets a stream split from the one of this task, the second half keeps it.
+	 */
+	@Override
+	protected void compute() {
+		if (to - from > 1) {
+			int middle = (from + to) >>> 1;
+			invokeAll(new TileGenerationTask(maze, tileGenerator, tileSize, nbTilesX, from, middle, random.split()),
+					new TileGenerationTask(maze, tileGenerator, tileSize, nbTilesX, middle, to, random));
+			return;
+		}
+		int x0 = (from % nbTilesX) * tileSize;
+		int y0 = (from / nbTilesX) * tileSize;
+		int width = Math.min(tileSize, maze.getWidth() - x0);
+		int height = Math.min(tileSize, maze.getHeight() - y0);
+		CellGrid tile = new HeapCellGrid(width, height);
+		tileGenerator.generate(tile, random);
+		maze.copy(tile, x0, y0);
+	}
+}
@@ -0,0 +1,564 @@
+import java.util.Arrays;
+
+/**
+ * The PathCache class remembers the answers of the path queries of a maze (model class). It stores next hops:
+ * each entry, keyed by a cell and a destination packed in a long, holds the next cell on a shortest path
+ * between them. A path query that misses asks the path finder for the whole path and stores one entry per step,
+ * up to the size of the cache, so the steps after it hit the cache and paths towards the same destination share
+ * their common end. A next step query that misses only asks the path finder for the next step and stores it,
+ * since the destination it is asked for, like the player, often moves before the following step. The size of
+ * the cache is bounded in bytes, the least recently used entries being evicted first, and all the entries are
+ * dropped when the walls of the maze change. The entries are kept in primitive arrays, so a next step query
+ * allocates nothing once the cache has grown to its working size.
+ */
+public class PathCache {
+	/**
+	 * The estimated size of an entry: its key, its value, its two links in the order of use, and its share of
+	 * the hash table.
+	 */
+	public static final int ENTRY_BYTES = 32;
+
+	/**
+	 * The largest number of entries of a cache, whatever its size in bytes.
+	 */
+	private static final int MAX_ENTRIES = 1 << 28;
+
+	/**
+	 * The maze whose paths are cached.
+	 */
+	private Maze maze;
+
+	/**
+	 * The next hop of each cached (cell, destination) pair, in order of last access.
+	 */
+	private LongIntLruMap nextHops;
+
+	/**
+	 * The maximum size of the entries in bytes.
+	 */
+	private long maxBytes;
+
+	/**
+	 * The version of the walls of the maze the entries were found with.
+	 */
+	private long version;
+
+	/**
+	 * The number of queries answered from the cache.
+	 */
+	private long nbHits = 0;
+
+	/**
+	 * The number of queries sent to the path finder.
+	 */
+	private long nbMisses = 0;
+
+	/**
+	 * The number of entries evicted to stay within the size of the cache.
+	 */
+	private long nbEvictions = 0;
+
+	/**
+	 * The buffer receiving the path walked through the cache.
+	 */
+	private int[] walked = new int[16];
+
+	/**
+	 * Creates an empty path cache for a maze.
+	 *
+	 * @param maze     The maze whose paths are cached.
+	 * @param maxBytes The maximum size of the entries in bytes, 0 to disable the cache.
+	 */
+	public PathCache(Maze maze, long maxBytes) {
+		this.maze = maze;
+		this.maxBytes = maxBytes;
+		version = maze.getVersion();
+		nextHops = new LongIntLruMap(capacity(maxBytes));
+	}
+
+	/**
+	 * Finds a shortest path between two cells, from the cache if all its steps are there.
+	 *
+	 * @param pathFinder The path finder asked on a miss.
+	 * @param from       The id of the cell to start from.
+	 * @param to         The id of the cell to reach.
+	 * @return The ids of the cells of the path after the start cell, ending with the cell to reach,
+	 *         empty if both cells are the same or the cell cannot be reached.
+	 */
+	public synchronized int[] findPath(PathFinder pathFinder, int from, int to) {
+		if (from == to) {
+			return new int[0];
+		}
+		checkVersion();
+		int length = 0;
+		int cell = from;
+		while (cell != to) {
+			int next = nextHops.get(key(cell, to));
+			if (next < 0) {
+				nbMisses++;
+				return store(pathFinder.findPath(from, to), from, to);
+			}
+			if (next == cell) { // The destination cannot be reached
+				break;
+			}
+			if (length == walked.length) {
+				walked = Arrays.copyOf(walked, length * 2);
+			}
+			walked[length++] = next;
+			cell = next;
+		}
+		nbHits++;
+		return cell == to ? Arrays.copyOf(walked, length) : new int[0];
+	}
+
+	/**
+	 * Finds the next cell on a shortest path between two cells, from the cache if it is there.
+	 *
+	 * @param pathFinder The path finder asked on a miss.
+	 * @param from       The id of the cell to move from.
+	 * @param to         The id of the cell to move to.
+	 * @return The id of the next cell, or the start cell if both cells are the same or the cell
+	 *         cannot be reached.
+	 */
+	public synchronized int nextStep(PathFinder pathFinder, int from, int to) {
+		if (from == to) {
+			return from;
+		}
+		checkVersion();
+		int next = nextHops.get(key(from, to));
+		if (next >= 0) {
+			nbHits++;
+			return next;
+		}
+		nbMisses++;
+		int step = pathFinder.nextStep(from, to);
+		put(key(from, to), step);
+		return step;
+	}
+
+	/**
+	 * Drops all the entries, keeping the counters.
+	 */
+	public synchronized void clear() {
+		nextHops.clear();
+	}
+
+	/**
+	 * Sets the maximum size of the entries, evicting the least recently used ones that no longer fit.
+	 *
+	 * @param maxBytes The maximum size in bytes, 0 to disable the cache.
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		nbEvictions += nextHops.setCapacity(capacity(maxBytes));
+	}
+
+	/**
+	 * Gets the maximum size of the entries.
+	 *
+	 * @return The maximum size in bytes.
+	 */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Gets the estimated size of the entries.
+	 *
+	 * @return The number of entries times ENTRY_BYTES.
+	 */
+	public synchronized long getBytes() {
+		return (long) nextHops.size() * ENTRY_BYTES;
+	}
+
+	/**
+	 * Gets the number of queries answered from the cache.
+	 *
+	 * @return The number of hits.
+	 */
+	public synchronized long getNbHits() {
+		return nbHits;
+	}
+
+	/**
+	 * Gets the number of queries sent to the path finder.
+	 *
+	 * @return The number of misses.
+	 */
+	public synchronized long getNbMisses() {
+		return nbMisses;
+	}
+
+	/**
+	 * Gets the number of entries evicted to stay within the size of the cache.
+	 *
+	 * @return The number of evictions.
+	 */
+	public synchronized long getNbEvictions() {
+		return nbEvictions;
+	}
+
+	/**
+	 * Drops all the entries if the walls of the maze changed since they were found.
+	 */
+	private void checkVersion() {
+		long current = maze.getVersion();
+		if (current != version) {
+			nextHops.clear();
+			version = current;
+		}
+	}
+
+	/**
+	 * Stores one entry per step of a path found by the path finder, or an entry marking the destination as
+	 * unreachable from the start if the path is empty. Only the first steps that fit in the cache are stored,
+	 * and they are stored from the last one so that the entry of the start is the most recently used: storing
+	 * them from the start would evict the first steps of a path longer than the cache while storing its end.
+	 *
+	 * @param path The path, as returned by the path finder.
+	 * @param from The id of the start cell.
+	 * @param to   The id of the destination cell.
+	 * @return The path.
+	 */
+	private int[] store(int[] path, int from, int to) {
+		if (path.length == 0) {
+			put(key(from, to), from);
+		}
+		int nbSteps = Math.min(path.length, nextHops.getCapacity());
+		for (int i = nbSteps - 1; i >= 0; i--) {
+			put(key(i == 0 ? from : path[i - 1], to), path[i]);
+		}
+		return path;
+	}
+
+	/**
+	 * Stores an entry, counting the entry evicted to make room for it if any.
+	 *
+	 * @param key  The key of the entry.
+	 * @param next The next hop of the entry.
+	 */
+	private void put(long key, int next) {
+		if (nextHops.put(key, next)) {
+			nbEvictions++;
+		}
+	}
+
+	/**
+	 * Gets the number of entries that fit in a size.
+	 *
+	 * @param maxBytes The size in bytes.
+	 * @return The number of entries.
+	 */
+	private static int capacity(long maxBytes) {
+		return (int) Math.min(MAX_ENTRIES, Math.max(0, maxBytes) / ENTRY_BYTES);
+	}
+
+	/**
+	 * Packs a cell and a destination into the key of their entry.
+	 *
+	 * @param cell The id of the cell.
+	 * @param to   The id of the destination cell.
+	 * @return The key of the pair.
+	 */
+	private static long key(int cell, int to) {
+		return ((long) cell << 32) | (to & 0xFFFFFFFFL);
+	}
+}
+
+/**
+ * The LongIntLruMap class is an open addressing hash map from long keys to non-negative int values holding a
+ * bounded number of entries, the least recently used one being evicted to make room for a new one (model
+ * class). The entries are numbered and linked in their order of use, and the hash table holds their numbers,
+ * so no object is allocated per entry.
+ */
+class LongIntLruMap {
+	/**
+	 * The number marking an empty slot of the hash table, or the end of the order of use.
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The maximum number of entries.
+	 */
+	private int capacity;
+
+	/**
+	 * The key of each entry.
+	 */
+	private long[] keys;
+
+	/**
+	 * The value of each entry.
+	 */
+	private int[] values;
+
+	/**
+	 * The entry used just before each entry, NONE for the least recently used one.
+	 */
+	private int[] older;
+
+	/**
+	 * The entry used just after each entry, NONE for the most recently used one.
+	 */
+	private int[] newer;
+
+	/**
+	 * The entry in each slot of the hash table, NONE for the free slots.
+	 */
+	private int[] slots;
+
+	/**
+	 * The mask turning a hash into a slot, the number of slots being a power of two.
+	 */
+	private int mask;
+
+	/**
+	 * The number of entries in the map.
+	 */
+	private int size = 0;
+
+	/**
+	 * The least recently used entry, NONE if the map is empty.
+	 */
+	private int oldest = NONE;
+
+	/**
+	 * The most recently used entry, NONE if the map is empty.
+	 */
+	private int newest = NONE;
+
+	/**
+	 * Creates an empty map. The arrays grow with the entries, up to the maximum number of entries.
+	 *
+	 * @param capacity The maximum number of entries, 0 for a map that keeps none.
+	 */
+	LongIntLruMap(int capacity) {
+		this.capacity = capacity;
+		allocate(Math.min(capacity, 16));
+	}
+
+	/**
+	 * Gets the maximum number of entries.
+	 *
+	 * @return The capacity of the map.
+	 */
+	int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the number of entries.
+	 *
+	 * @return The size of the map.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the value of a key, making its entry the most recently used.
+	 *
+	 * @param key The key.
+	 * @return The value of the key, or -1 if the key is absent.
+	 */
+	int get(long key) {
+		int entry = slots[slot(key)];
+		if (entry == NONE) {
+			return -1;
+		}
+		touch(entry);
+		return values[entry];
+	}
+
+	/**
+	 * Sets the value of a key, making its entry the most recently used. A new key takes the place of the least
+	 * recently used entry if the map is full.
+	 *
+	 * @param key   The key.
+	 * @param value The value, non-negative.
+	 * @return True if an entry was evicted, false otherwise.
+	 */
+	boolean put(long key, int value) {
+		assert value >= 0;
+		if (capacity == 0) {
+			return false;
+		}
+		int i = slot(key);
+		int entry = slots[i];
+		if (entry != NONE) {
+			values[entry] = value;
+			touch(entry);
+			return false;
+		}
+		boolean evicted = false;
+		if (size == capacity) { // The oldest entry is reused for the key
+			entry = oldest;
+			unlink(entry);
+			removeSlot(slot(keys[entry]));
+			i = slot(key);
+			evicted = true;
+		} else {
+			if (size == keys.length) {
+				allocate((int) Math.min(capacity, 2L * size));
+				i = slot(key);
+			}
+			entry = size++;
+		}
+		keys[entry] = key;
+		values[entry] = value;
+		slots[i] = entry;
+		link(entry);
+		return evicted;
+	}
+
+	/**
+	 * Removes all the entries, keeping the arrays.
+	 */
+	void clear() {
+		Arrays.fill(slots, NONE);
+		size = 0;
+		oldest = NONE;
+		newest = NONE;
+	}
+
+	/**
+	 * Changes the maximum number of entries, evicting the least recently used ones that no longer fit.
+	 *
+	 * @param newCapacity The new maximum number of entries.
+	 * @return The number of entries evicted.
+	 */
+	int setCapacity(int newCapacity) {
+		int nbEvicted = Math.max(0, size - newCapacity);
+		LongIntLruMap kept = new LongIntLruMap(newCapacity);
+		int entry = oldest;
+		for (int i = 0; i < nbEvicted; i++) {
+			entry = newer[entry];
+		}
+		for (; entry != NONE; entry = newer[entry]) {
+			kept.put(keys[entry], values[entry]);
+		}
+		capacity = newCapacity;
+		keys = kept.keys;
+		values = kept.values;
+		older = kept.older;
+		newer = kept.newer;
+		slots = kept.slots;
+		mask = kept.mask;
+		size = kept.size;
+		oldest = kept.oldest;
+		newest = kept.newest;
+		return nbEvicted;
+	}
+
+	/**
+	 * Gets the slot of a key.
+	 *
+	 * @param key The key.
+	 * @return The slot holding the entry of the key, or the free slot ending its probe sequence.
+	 */
+	private int slot(long key) {
+		int i = home(key);
+		while (slots[i] != NONE && keys[slots[i]] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	/**
+	 * Gets the slot where a key starts to be probed for.
+	 *
+	 * @param key The key.
+	 * @return The home slot of the key.
+	 */
+	private int home(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	/**
+	 * Frees a slot of the hash table, shifting back the following entries whose probe sequence went
+	 * through it.
+	 *
+	 * @param i The slot to free.
+	 */
+	private void removeSlot(int i) {
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (slots[j] == NONE) {
+				break;
+			}
+			int h = home(keys[slots[j]]);
+			if (((j - h) & mask) >= ((j - i) & mask)) {
+				slots[i] = slots[j];
+				i = j;
+			}
+		}
+		slots[i] = NONE;
+	}
+
+	/**
+	 * Makes an entry the most recently used.
+	 *
+	 * @param entry The entry.
+	 */
+	private void touch(int entry) {
+		if (entry != newest) {
+			unlink(entry);
+			link(entry);
+		}
+	}
+
+	/**
+	 * Takes an entry out of the order of use.
+	 *
+	 * @param entry The entry.
+	 */
+	private void unlink(int entry) {
+		if (older[entry] == NONE) {
+			oldest = newer[entry];
+		} else {
+			newer[older[entry]] = newer[entry];
+		}
+		if (newer[entry] == NONE) {
+			newest = older[entry];
+		} else {
+			older[newer[entry]] = older[entry];
+		}
+	}
+
+	/**
+	 * Puts an entry at the end of the order of use, as the most recently used.
+	 *
+	 * @param entry The entry.
+	 */
+	private void link(int entry) {
+		older[entry] = newest;
+		newer[entry] = NONE;
+		if (newest == NONE) {
+			oldest = entry;
+		} else {
+			newer[newest] = entry;
+		}
+		newest = entry;
+	}
+
+	/**
+	 * Resizes the arrays of the entries and builds the hash table again, with at least twice as many slots as
+	 * entries.
+	 *
+	 * @param nbEntries The number of entries the arrays can hold.
+	 */
+	private void allocate(int nbEntries) {
+		keys = keys == null ? new long[nbEntries] : Arrays.copyOf(keys, nbEntries);
+		values = values == null ? new int[nbEntries] : Arrays.copyOf(values, nbEntries);
+		older = older == null ? new int[nbEntries] : Arrays.copyOf(older, nbEntries);
+		newer = newer == null ? new int[nbEntries] : Arrays.copyOf(newer, nbEntries);
+		slots = new int[Integer.highestOneBit(Math.max(2, nbEntries) * 2 - 1) << 1];
+		Arrays.fill(slots, NONE);
+		mask = slots.length - 1;
+		for (int entry = 0; entry < size; entry++) {
+			slots[slot(keys[entry])] = entry;
+		}
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ * The PathFinder interface represents an algorithm finding shortest paths between the cells of a maze
+ * (model class). Each path finder is bound to the maze it searches, and cells are given by id
+ * (x + y * width). Several threads may query the same path finder at once.
+ */
+public interface PathFinder {
+	/**
+	 * Finds a shortest path between two cells.
+	 *
+	 * @param from The id of the cell to start from.
+	 * @param to   The id of the cell to reach.
+	 * @return The ids of the cells of the path after the start cell, ending with the cell to reach,
+	 *         empty if both cells are the same or the cell cannot be reached.
+	 */
+	int[] findPath(int from, int to);
+
+	/**
+	 * Finds the next cell on a shortest path between two cells, without building the path.
+	 *
+	 * @param from The id of the cell to move from.
+	 * @param to   The id of the cell to move to.
+	 * @return The id of the next cell, or the start cell if both cells are the same or the cell
+	 *         cannot be reached.
+	 */
+	int nextStep(int from, int to);
+
+	/**
+	 * Gets the number of cells expanded by all the searches so far, to compare the work of the algorithms.
+	 * The count of a single query is the difference before and after it.
+	 *
+	 * @return The number of cells expanded.
+	 */
+	long getNbExpanded();
+
+	/**
+	 * Gets the memory used by the tables the path finder keeps from one query to the next,
+	 * not counting the scratch of each thread.
+	 *
+	 * @return The size of the tables in bytes.
+	 */
+	default long getMemoryBytes() {
+		return 0;
+	}
+}
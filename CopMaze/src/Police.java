@@ -1,13 +1,14 @@
-import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * This class represents a policeman in the maze (model class).
  */
 public class Police {
 	/**
-	 * c is the current coordinates of the policeman
+	 * c is the current coordinates of the policeman, replaced rather than modified when it moves so that
+	 * another thread reading it once sees both coordinates of the same position
 	 */
-	public Coordinate c;
+	public volatile Coordinate c;
 	/**
 	 * originC is the origin coordinates of the policeman
 	 */
@@ -20,16 +21,34 @@ public class Police {
 	 * turnShift is a random number that allows the AI to behave differently for each policeman
 	 */
 	public int turnShift;
+	/**
+	 * random is the random number generator of the policeman, split from the one of the maze
+	 */
+	private SplittableRandom random;
+	/**
+	 * moves is the buffer receiving the valid moves of the policeman, reused from one move to the next
+	 */
+	private int[] moves = new int[4];
+	/**
+	 * originField is the directions towards the origin of the policeman, computed the first time it heads back
+	 */
+	private DirectionField originField;
+	/**
+	 * originVersion is the version of the walls of the maze the way back to the origin was computed with
+	 */
+	private long originVersion;
 	
 	/**
 	 * Creates a policeman starting at some coordinates.
 	 * @param c the starting coordinates of the policeman
 	 * @param maxTurnShift the maximum value for the random number turnShift
+	 * @param random the random number generator of the policeman
 	 */
-    Police(Coordinate c, int maxTurnShift) {
+    Police(Coordinate c, int maxTurnShift, SplittableRandom random) {
         this.c = c;
-        originC = c;
-		turnShift = (int) (Math.random() * (maxTurnShift+1));
+        originC = new Coordinate(c.x, c.y);
+        this.random = random;
+		turnShift = random.nextInt(maxTurnShift+1);
     }
     
     /**
@@ -38,10 +57,8 @@ public class Police {
      * @return the new coordinates of the policeman
      */
     public Coordinate moveToPlayer(Maze maze) {
-		List<Coordinate> path = maze.shortestPath(c, maze.getCharacter().currentLocation);
-		if (!path.isEmpty()) {
-			c = path.get(0);
-		}
+		Coordinate player = maze.getCharacter().currentLocation;
+		moveTo(maze, maze.nextStep(maze.getCellId(c.x, c.y), maze.getCellId(player.x, player.y)));
 		return c;
     }
     
@@ -51,10 +68,15 @@ public class Police {
      * @return the new coordinates of the policeman
      */
     public Coordinate moveToOrigin(Maze maze) {
-		List<Coordinate> path = maze.shortestPath(c, originC);
-		if (!path.isEmpty()) {
-			c = path.get(0);
+		// The origin never changes, so the way back is only searched again when the walls change
+		if (originField == null) {
+			originField = new DirectionField(maze.getWidth() * maze.getHeight(), maze.getWidth());
 		}
+		if (originField.getSource() < 0 || originVersion != maze.getVersion()) {
+			originVersion = maze.getVersion();
+			originField.compute(maze, maze.getCellId(originC.x, originC.y));
+		}
+		moveTo(maze, originField.nextStep(maze.getCellId(c.x, c.y)));
 		return c;
     }
 
@@ -64,10 +86,28 @@ public class Police {
      * @return the new coordinates of the policeman
      */
 	public Coordinate moveRandom(Maze maze) {
-		List<Coordinate> possibleMoves = maze.getValidMoves(c);
-		if (possibleMoves.size() > 0) {
-			c = possibleMoves.get((int) (Math.random() * possibleMoves.size()));
+		int nbMoves = maze.getValidMoves(maze.getCellId(c.x, c.y), moves);
+		if (nbMoves > 0) {
+			moveTo(maze, moves[random.nextInt(nbMoves)]);
 		}
 		return c;
 	}
+
+	/**
+	 * Gets the memory used by the precomputed way back to the origin of the policeman
+	 * @return the size of the tables in bytes, 0 if the policeman never headed back yet
+	 */
+	public long getRouteMemoryBytes() {
+		return originField == null ? 0 : originField.getMemoryBytes();
+	}
+
+	/**
+	 * Moves the policeman to a cell, publishing its new coordinates and updating the entity index of the maze
+	 * @param maze the maze in which to move
+	 * @param cell the id of the cell to move to
+	 */
+	private void moveTo(Maze maze, int cell) {
+		maze.getEntityIndex().movePolice(maze.getCellId(c.x, c.y), cell);
+		c = new Coordinate(maze.getCellX(cell), maze.getCellY(cell));
+	}
 }
@@ -0,0 +1,117 @@
+import java.util.Arrays;
+
+/**
+ * The SearchScratch class holds the state of a path search over the cells of a maze, outside of the
+ * maze itself (model class). Each thread uses its own scratch, so searches can run concurrently while the
+ * maze stays read-only. A cell is visited when its stamp equals the current epoch, so starting a new search
+ * only increments the epoch instead of clearing every cell. The side each cell was reached from takes
+ * 2 bits, and the queue of breadth-first searches is a ring buffer sized to the largest frontier seen.
+ */
+public class SearchScratch {
+	/**
+	 * The epoch of the last search that visited each cell.
+	 */
+	private int[] stamps;
+
+	/**
+	 * The side each visited cell was reached from, packed 2 bits per cell (0 to 3 for LEFT, BOTTOM,
+	 * RIGHT, and TOP), 32 cells per word.
+	 */
+	private long[] cameFrom;
+
+	/**
+	 * The queue of cell ids of breadth-first searches, reused from one search to the next.
+	 */
+	private CellQueue queue = new CellQueue();
+
+	/**
+	 * The epoch of the current search.
+	 */
+	private int epoch = 0;
+
+	/**
+	 * Creates a scratch for a maze.
+	 *
+	 * @param nbCells The number of cells of the maze.
+	 */
+	public SearchScratch(int nbCells) {
+		stamps = new int[nbCells];
+		cameFrom = new long[(nbCells + 31) >>> 5];
+	}
+
+	/**
+	 * Starts a new search, which marks all the cells as unvisited in O(1).
+	 */
+	public void reset() {
+		epoch++;
+		queue.clear();
+		if (epoch == 0) { // The epoch wrapped around, old stamps could match again
+			Arrays.fill(stamps, 0);
+			epoch = 1;
+		}
+	}
+
+	/**
+	 * Checks if a cell has been visited by the current search.
+	 *
+	 * @param cell The id of the cell.
+	 * @return True if the cell has been visited, false otherwise.
+	 */
+	public boolean isVisited(int cell) {
+		return stamps[cell] == epoch;
+	}
+
+	/**
+	 * Marks a cell as visited by the current search.
+	 *
+	 * @param cell The id of the cell.
+	 * @param from The side (LEFT, BOTTOM, RIGHT, or TOP) the cell was reached from, 0 for the start cell.
+	 */
+	public void visit(int cell, int from) {
+		stamps[cell] = epoch;
+		if (from != 0) {
+			int shift = (cell & 31) << 1;
+			long code = Integer.numberOfTrailingZeros(from);
+			cameFrom[cell >>> 5] = (cameFrom[cell >>> 5] & ~(3L << shift)) | (code << shift);
+		}
+	}
+
+	/**
+	 * Gets the side a visited cell was reached from.
+	 *
+	 * @param cell The id of the cell.
+	 * @return LEFT, BOTTOM, RIGHT, or TOP, meaningless for the start cell.
+	 */
+	public int getCameFrom(int cell) {
+		return 1 << (int) ((cameFrom[cell >>> 5] >>> ((cell & 31) << 1)) & 3);
+	}
+
+	/**
+	 * Gets the queue of breadth-first searches, emptied by each reset.
+	 *
+	 * @return The queue of cell ids.
+	 */
+	public CellQueue getQueue() {
+		return queue;
+	}
+
+	/**
+	 * Rebuilds the path found by the current search by following the sides each cell was reached from.
+	 *
+	 * @param maze The maze searched.
+	 * @param from The id of the start cell of the search.
+	 * @param to   The id of a visited cell.
+	 * @return The ids of the cells of the path after the start cell, ending with the visited cell.
+	 */
+	public int[] getPath(Maze maze, int from, int to) {
+		int length = 0;
+		for (int cell = to; cell != from; cell = maze.getNeighbor(cell, getCameFrom(cell))) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int cell = to; cell != from; cell = maze.getNeighbor(cell, getCameFrom(cell))) {
+			path[--length] = cell;
+		}
+		return path;
+	}
+}
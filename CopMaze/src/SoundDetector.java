@@ -54,10 +54,12 @@ public class SoundDetector {
     }
 
     /**
-     * Stops the audio capture and analysis thread.
+     * Stops the audio capture and analysis thread, if it was started.
      */
     public void stop() {
-        loopThread.interrupt();
+        if (loopThread != null) {
+            loopThread.interrupt();
+        }
     }
 
     /**
@@ -0,0 +1,89 @@
+/**
+ * The WallBitmaps class stores the walls of a maze as two packed bitmaps of long words (model class).
+ * The horizontal layer holds one line per row boundary (height + 1 lines of width bits, line y being the
+ * top walls of row y), and the vertical layer one line per column boundary (width + 1 lines of height bits,
+ * line x being the left walls of column x). A set bit is a wall. Along a line, adjacent walls form one
+ * straight segment, so whole-maze passes such as counting walls, finding runs of walls or openings, or
+ * masking a region work on 64 walls at a time instead of cell by cell.
+ */
+public class WallBitmaps {
+	/**
+	 * The horizontal walls, one line per row boundary.
+	 */
+	private WallLayer horizontal;
+
+	/**
+	 * The vertical walls, one line per column boundary.
+	 */
+	private WallLayer vertical;
+
+	/**
+	 * Creates the bitmaps of the walls of a grid of cells.
+	 *
+	 * @param cells The cells of the maze.
+	 */
+	public WallBitmaps(CellGrid cells) {
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+		horizontal = new WallLayer(height + 1, width);
+		vertical = new WallLayer(width + 1, height);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int bits = cells.get(cells.index(x, y));
+				if ((bits & Maze.TOP) == 0) {
+					horizontal.setWall(y, x);
+				}
+				if ((bits & Maze.LEFT) == 0) {
+					vertical.setWall(x, y);
+				}
+				if (y == height - 1 && (bits & Maze.BOTTOM) == 0) {
+					horizontal.setWall(height, x);
+				}
+				if (x == width - 1 && (bits & Maze.RIGHT) == 0) {
+					vertical.setWall(width, y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the horizontal walls, line y holding the top walls of row y.
+	 *
+	 * @return The layer of the horizontal walls.
+	 */
+	public WallLayer getHorizontal() {
+		return horizontal;
+	}
+
+	/**
+	 * Gets the vertical walls, line x holding the left walls of column x.
+	 *
+	 * @return The layer of the vertical walls.
+	 */
+	public WallLayer getVertical() {
+		return vertical;
+	}
+
+	/**
+	 * Counts all the walls of the maze, border walls included.
+	 *
+	 * @return The number of walls.
+	 */
+	public long countWalls() {
+		return horizontal.countWalls() + vertical.countWalls();
+	}
+
+	/**
+	 * Counts the walls between the cells of a rectangular region, the walls on the border of the region
+	 * excluded.
+	 *
+	 * @param x0 The x-coordinate of the first column of the region.
+	 * @param y0 The y-coordinate of the first row of the region.
+	 * @param x1 The x-coordinate after the last column of the region.
+	 * @param y1 The y-coordinate after the last row of the region.
+	 * @return The number of inner walls of the region.
+	 */
+	public long countInnerWalls(int x0, int y0, int x1, int y1) {
+		return horizontal.countWalls(y0 + 1, y1, x0, x1) + vertical.countWalls(x0 + 1, x1, y0, y1);
+	}
+}
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+/**
+ * The WallChangeLog class remembers the last cells of a maze whose walls changed, with the version of the walls
+ * each change led to (model class). The tables built from the walls can ask which cells changed since the
+ * version they were built with and update only the part of them these cells touch. The log is a ring of a
+ * fixed size, so the changes older than the last ones are forgotten; a table that is too old to be answered
+ * must be built again from scratch.
+ */
+public class WallChangeLog {
+	/**
+	 * The cells that changed, in a ring ordered by version.
+	 */
+	private int[] cells;
+
+	/**
+	 * The version of the walls each change of cells led to.
+	 */
+	private long[] versions;
+
+	/**
+	 * The number of changes recorded since the last reset, the ones overwritten included.
+	 */
+	private long nbRecorded = 0;
+
+	/**
+	 * The version since which the log holds all the changes.
+	 */
+	private long completeSince = 0;
+
+	/**
+	 * Creates an empty log of wall changes.
+	 *
+	 * @param capacity The number of changes kept.
+	 */
+	public WallChangeLog(int capacity) {
+		assert capacity > 0;
+		cells = new int[capacity];
+		versions = new long[capacity];
+	}
+
+	/**
+	 * Forgets all the changes, when the walls changed too much to be listed cell by cell.
+	 *
+	 * @param version The version of the walls after the change.
+	 */
+	public synchronized void reset(long version) {
+		nbRecorded = 0;
+		completeSince = version;
+	}
+
+	/**
+	 * Records the change of the walls of a cell, overwriting the oldest change if the log is full.
+	 *
+	 * @param version The version of the walls after the change.
+	 * @param cell    The id of the cell.
+	 */
+	public synchronized void record(long version, int cell) {
+		int i = (int) (nbRecorded % cells.length);
+		if (nbRecorded >= cells.length) {
+			completeSince = Math.max(completeSince, versions[i]);
+		}
+		cells[i] = cell;
+		versions[i] = version;
+		nbRecorded++;
+	}
+
+	/**
+	 * Gets the cells whose walls changed after a version.
+	 *
+	 * @param sinceVersion The version of the walls to compare with.
+	 * @return The ids of the cells that changed, oldest first and possibly repeated, or null if the log no
+	 *         longer holds all the changes since this version.
+	 */
+	public synchronized int[] getChangedCells(long sinceVersion) {
+		if (sinceVersion < completeSince) {
+			return null;
+		}
+		int nbKept = (int) Math.min(nbRecorded, cells.length);
+		int[] changed = new int[nbKept];
+		int nbChanged = 0;
+		for (long n = nbRecorded - nbKept; n < nbRecorded; n++) {
+			int i = (int) (n % cells.length);
+			if (versions[i] > sinceVersion) {
+				changed[nbChanged++] = cells[i];
+			}
+		}
+		return Arrays.copyOf(changed, nbChanged);
+	}
+}
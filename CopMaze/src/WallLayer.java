@@ -0,0 +1,181 @@
+/**
+ * The WallLayer class holds one layer of the walls of a maze (model class): lines of bits packed in long
+ * words, each line starting on a new word so that the words of a line can be scanned without shifting.
+ */
+public class WallLayer {
+	/**
+	 * The bits of the walls, line after line.
+	 */
+	private long[] words;
+
+	/**
+	 * The number of lines of the layer.
+	 */
+	private int nbLines;
+
+	/**
+	 * The number of walls along each line.
+	 */
+	private int lineLength;
+
+	/**
+	 * The number of words of each line.
+	 */
+	private int wordsPerLine;
+
+	/**
+	 * Creates a layer without any wall.
+	 *
+	 * @param nbLines    The number of lines of the layer.
+	 * @param lineLength The number of walls along each line.
+	 */
+	WallLayer(int nbLines, int lineLength) {
+		this.nbLines = nbLines;
+		this.lineLength = lineLength;
+		wordsPerLine = (lineLength + 63) >>> 6;
+		words = new long[nbLines * wordsPerLine];
+	}
+
+	/**
+	 * Gets the number of lines of the layer.
+	 *
+	 * @return The number of lines.
+	 */
+	public int getNbLines() {
+		return nbLines;
+	}
+
+	/**
+	 * Gets the number of walls along each line.
+	 *
+	 * @return The length of the lines.
+	 */
+	public int getLineLength() {
+		return lineLength;
+	}
+
+	/**
+	 * Checks if there is a wall at a position of a line.
+	 *
+	 * @param line     The line.
+	 * @param position The position along the line.
+	 * @return True if there is a wall, false otherwise.
+	 */
+	public boolean hasWall(int line, int position) {
+		return (words[line * wordsPerLine + (position >>> 6)] & (1L << position)) != 0;
+	}
+
+	/**
+	 * Gets a word of a line, holding the walls of 64 positions; the bits after the end of the line are 0.
+	 *
+	 * @param line The line.
+	 * @param word The index of the word along the line.
+	 * @return The bits of the walls at the positions word * 64 to word * 64 + 63.
+	 */
+	long getWord(int line, int word) {
+		return words[line * wordsPerLine + word];
+	}
+
+	/**
+	 * Adds a wall at a position of a line.
+	 *
+	 * @param line     The line.
+	 * @param position The position along the line.
+	 */
+	void setWall(int line, int position) {
+		words[line * wordsPerLine + (position >>> 6)] |= 1L << position;
+	}
+
+	/**
+	 * Counts all the walls of the layer.
+	 *
+	 * @return The number of walls.
+	 */
+	public long countWalls() {
+		long count = 0;
+		for (long word : words) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the walls of a range of positions over a range of lines, masking the partial words at both ends.
+	 *
+	 * @param line0 The first line.
+	 * @param line1 The line after the last one.
+	 * @param from  The first position.
+	 * @param to    The position after the last one.
+	 * @return The number of walls in the region.
+	 */
+	public long countWalls(int line0, int line1, int from, int to) {
+		if (from >= to) {
+			return 0;
+		}
+		int firstWord = from >>> 6;
+		int lastWord = (to - 1) >>> 6;
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> (-to & 63);
+		long count = 0;
+		for (int line = line0; line < line1; line++) {
+			int base = line * wordsPerLine;
+			if (firstWord == lastWord) {
+				count += Long.bitCount(words[base + firstWord] & firstMask & lastMask);
+				continue;
+			}
+			count += Long.bitCount(words[base + firstWord] & firstMask);
+			for (int i = firstWord + 1; i < lastWord; i++) {
+				count += Long.bitCount(words[base + i]);
+			}
+			count += Long.bitCount(words[base + lastWord] & lastMask);
+		}
+		return count;
+	}
+
+	/**
+	 * Finds the next wall along a line.
+	 *
+	 * @param line The line.
+	 * @param from The position to start from, included.
+	 * @return The position of the next wall, or the length of the line if there is none.
+	 */
+	public int nextWall(int line, int from) {
+		return next(line, from, 0);
+	}
+
+	/**
+	 * Finds the next opening (position without a wall) along a line, which also ends the current run of walls.
+	 *
+	 * @param line The line.
+	 * @param from The position to start from, included.
+	 * @return The position of the next opening, or the length of the line if there is none.
+	 */
+	public int nextOpening(int line, int from) {
+		return next(line, from, -1L);
+	}
+
+	/**
+	 * Finds the next set bit of a line once its words are flipped by a mask.
+	 *
+	 * @param line The line.
+	 * @param from The position to start from, included.
+	 * @param flip 0 to look for walls, all ones to look for openings.
+	 * @return The position found, or the length of the line if there is none.
+	 */
+	private int next(int line, int from, long flip) {
+		if (from >= lineLength) {
+			return lineLength;
+		}
+		int base = line * wordsPerLine;
+		int i = from >>> 6;
+		long word = (words[base + i] ^ flip) & (-1L << from);
+		while (word == 0) {
+			if (++i == wordsPerLine) {
+				return lineLength;
+			}
+			word = words[base + i] ^ flip;
+		}
+		// The padding bits after the end of the line are openings, so the result is capped
+		return Math.min(lineLength, (i << 6) + Long.numberOfTrailingZeros(word));
+	}
+}
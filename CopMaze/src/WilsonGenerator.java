@@ -0,0 +1,107 @@
+import java.util.SplittableRandom;
+
+/**
+ * This class generates mazes with Wilson's algorithm, which produces a uniform spanning tree
+ * by joining loop-erased random walks to the maze (model class).
+ * The unconnected cells are kept in a frontier with O(1) removal, and loops of the random
+ * walks are erased by remembering the last direction taken out of each cell, so the
+ * generation runs in time proportional to the length of the walks.
+ */
+public class WilsonGenerator implements MazeGenerator {
+
+	/**
+	 * Carves a perfect maze into the given grid using Wilson's algorithm.
+	 *
+	 * @param maze The cells of the maze.
+	 * @param random The source of randomness of the generation.
+	 */
+	@Override
+	public void generate(CellGrid maze, SplittableRandom random) {
+		int n = maze.getWidth();
+		int m = maze.getHeight();
+		int nbCells = n * m;
+		// Cell ids are x + y * n
+		int[] unconnectedCells = new int[nbCells];
+		int[] positions = new int[nbCells];
+		for (int i = 0; i < nbCells; i++) {
+			unconnectedCells[i] = i;
+			positions[i] = i;
+		}
+		int nbUnconnected = nbCells;
+		byte[] directions = new byte[nbCells];
+
+		int target = random.nextInt(nbUnconnected);
+		nbUnconnected = removeUnconnectedCell(unconnectedCells, positions, nbUnconnected, target);
+		while (nbUnconnected > 0) {
+			int start = unconnectedCells[random.nextInt(nbUnconnected)];
+			// Random walk until joining the maze, the last exit of each cell erases the loops
+			int current = start;
+			int x = start % n;
+			int y = start / n;
+			while (positions[current] >= 0) {
+				int direction = 1 << random.nextInt(4);
+				if (direction == Maze.LEFT) {
+					if (x == 0) continue;
+					x--;
+				} else if (direction == Maze.RIGHT) {
+					if (x == n - 1) continue;
+					x++;
+				} else if (direction == Maze.TOP) {
+					if (y == 0) continue;
+					y--;
+				} else { // Bottom
+					if (y == m - 1) continue;
+					y++;
+				}
+				directions[current] = (byte) direction;
+				current = x + y * n;
+			}
+			// Open the loop-erased path and connect its cells to the maze
+			current = start;
+			while (positions[current] >= 0) {
+				int direction = directions[current];
+				maze.openPassage(current % n, current / n, direction);
+				nbUnconnected = removeUnconnectedCell(unconnectedCells, positions, nbUnconnected, current);
+				current = neighbor(current, direction, n);
+			}
+		}
+	}
+
+	/**
+	 * Removes a cell from the frontier of unconnected cells by swapping it with the last one.
+	 *
+	 * @param unconnectedCells The ids of the unconnected cells.
+	 * @param positions The position of each cell in unconnectedCells, or -1 once connected.
+	 * @param nbUnconnected The number of unconnected cells.
+	 * @param cell The id of the cell to remove.
+	 * @return The new number of unconnected cells.
+	 */
+	private static int removeUnconnectedCell(int[] unconnectedCells, int[] positions, int nbUnconnected, int cell) {
+		int last = unconnectedCells[nbUnconnected - 1];
+		int position = positions[cell];
+		unconnectedCells[position] = last;
+		positions[last] = position;
+		positions[cell] = -1;
+		return nbUnconnected - 1;
+	}
+
+	/**
+	 * Gets the id of the cell next to the given cell in the given direction.
+	 *
+	 * @param cell The id of the cell (x + y * width).
+	 * @param direction The direction: LEFT, BOTTOM, RIGHT, or TOP.
+	 * @param width The width of the maze.
+	 * @return The id of the neighbor cell.
+	 */
+	private static int neighbor(int cell, int direction, int width) {
+		if (direction == Maze.LEFT) {
+			return cell - 1;
+		} else if (direction == Maze.RIGHT) {
+			return cell + 1;
+		} else if (direction == Maze.TOP) {
+			return cell - width;
+		} else { // Bottom
+			return cell + width;
+		}
+	}
+}